@@ -3,36 +3,61 @@ package com.toolmate.toolmate_api.config;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
-import jakarta.annotation.PostConstruct;
+import com.google.firebase.messaging.FirebaseMessaging;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.time.Duration;
 
+/**
+ * Firebase for push delivery. Startup fails when the service account cannot be
+ * loaded, rather than every push failing later; run with
+ * notifications.push.sender=local to start without Firebase.
+ */
 @Configuration
+@ConditionalOnProperty(name = "notifications.push.sender", havingValue = "fcm", matchIfMissing = true)
 @Slf4j
 public class FirebaseConfig {
 
-    @PostConstruct
-    public void initialize() {
-        try {
-            ClassPathResource resource =
-                    new ClassPathResource("firebase-service-account.json");
+    @Value("${firebase.credentials:file:${FIREBASE_CREDENTIALS_PATH:/opt/secrets/firebase-service-account.json}}")
+    private Resource credentials;
 
-            InputStream serviceAccount = resource.getInputStream();
+    // Bound every HTTP call to FCM, so a slow Firebase cannot hold sender threads indefinitely
+    @Value("${firebase.connect-timeout:5s}")
+    private Duration connectTimeout;
 
+    @Value("${firebase.read-timeout:10s}")
+    private Duration readTimeout;
+
+    @Bean
+    public FirebaseApp firebaseApp() {
+        if (!FirebaseApp.getApps().isEmpty()) {
+            return FirebaseApp.getInstance();
+        }
+        try (InputStream serviceAccount = credentials.getInputStream()) {
             FirebaseOptions options = FirebaseOptions.builder()
                     .setCredentials(GoogleCredentials.fromStream(serviceAccount))
+                    .setConnectTimeout((int) connectTimeout.toMillis())
+                    .setReadTimeout((int) readTimeout.toMillis())
                     .build();
 
-            if (FirebaseApp.getApps().isEmpty()) {
-                FirebaseApp.initializeApp(options);
-                log.info("🔥 Firebase initialized successfully");
-            }
-
-        } catch (Exception e) {
-            log.error("❌ Firebase initialization failed", e);
+            FirebaseApp app = FirebaseApp.initializeApp(options);
+            log.info("🔥 Firebase initialized successfully");
+            return app;
+        } catch (IOException e) {
+            throw new IllegalStateException("❌ Firebase initialization failed: cannot load " + credentials
+                    + " (set notifications.push.sender=local to run without Firebase)", e);
         }
     }
+
+    @Bean
+    public FirebaseMessaging firebaseMessaging(FirebaseApp firebaseApp) {
+        return FirebaseMessaging.getInstance(firebaseApp);
+    }
 }
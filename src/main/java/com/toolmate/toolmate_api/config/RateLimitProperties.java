@@ -0,0 +1,40 @@
+package com.toolmate.toolmate_api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-route request limits (rate-limit.* in application.properties).
+ * The first rule whose pattern and method match a request applies; requests
+ * matching no rule are not limited.
+ */
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+@Data
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Buckets unused for this long are full again and are dropped
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+        private String name;
+        private String pattern;
+        // Empty = every method
+        private List<String> methods = new ArrayList<>();
+        // Burst size
+        private int capacity;
+        // Sustained requests per period
+        private int refill;
+        private Duration period = Duration.ofMinutes(1);
+    }
+}
@@ -2,6 +2,7 @@ package com.toolmate.toolmate_api.controller;
 
 import com.toolmate.toolmate_api.dto.response.AuthResponse;
 import com.toolmate.toolmate_api.dto.request.LoginRequest;
+import com.toolmate.toolmate_api.dto.request.RefreshTokenRequest;
 import com.toolmate.toolmate_api.dto.request.RegisterRequest;
 import com.toolmate.toolmate_api.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -30,4 +31,17 @@ public class AuthController {
     public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
         return ResponseEntity.ok(authService.login(request));
     }
+
+    @PostMapping("/refresh")
+    @Operation(summary = "Exchange a refresh token for a new access and refresh token")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(authService.refresh(request));
+    }
+
+    @PostMapping("/logout")
+    @Operation(summary = "Revoke the session of a refresh token")
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshTokenRequest request) {
+        authService.logout(request);
+        return ResponseEntity.noContent().build();
+    }
 }
\ No newline at end of file
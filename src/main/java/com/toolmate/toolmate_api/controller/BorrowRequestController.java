@@ -3,6 +3,7 @@ package com.toolmate.toolmate_api.controller;
 import com.toolmate.toolmate_api.dto.request.BorrowRequestRequest;
 import com.toolmate.toolmate_api.dto.response.BorrowRequestResponse;
 import com.toolmate.toolmate_api.dto.response.StatusHistoryDTO;
+import com.toolmate.toolmate_api.security.AuthenticatedUser;
 import com.toolmate.toolmate_api.service.BorrowRequestService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -10,7 +11,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -28,20 +29,20 @@ public class BorrowRequestController {
     @Operation(summary = "Create new borrow request (Status: PENDING)")
     public ResponseEntity<BorrowRequestResponse> createBorrowRequest(
             @Valid @RequestBody BorrowRequestRequest request,
-            Authentication authentication) {
-        return ResponseEntity.ok(borrowRequestService.createBorrowRequest(request, authentication.getName()));
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(borrowRequestService.createBorrowRequest(request, currentUser.id()));
     }
 
     @GetMapping("/my-requests")
     @Operation(summary = "Get my borrow requests")
-    public ResponseEntity<List<BorrowRequestResponse>> getMyBorrowRequests(Authentication authentication) {
-        return ResponseEntity.ok(borrowRequestService.getMyBorrowRequests(authentication.getName()));
+    public ResponseEntity<List<BorrowRequestResponse>> getMyBorrowRequests(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(borrowRequestService.getMyBorrowRequests(currentUser.id()));
     }
 
     @GetMapping("/for-my-tools")
     @Operation(summary = "Get borrow requests for my tools")
-    public ResponseEntity<List<BorrowRequestResponse>> getRequestsForMyTools(Authentication authentication) {
-        return ResponseEntity.ok(borrowRequestService.getRequestsForMyTools(authentication.getName()));
+    public ResponseEntity<List<BorrowRequestResponse>> getRequestsForMyTools(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(borrowRequestService.getRequestsForMyTools(currentUser.id()));
     }
 
     // ========== LIFECYCLE ACTIONS ==========
@@ -50,8 +51,8 @@ public class BorrowRequestController {
     @Operation(summary = "Accept request (PENDING - ACCEPTED) [Owner only]")
     public ResponseEntity<BorrowRequestResponse> acceptRequest(
             @PathVariable Long id,
-            Authentication authentication) {
-        return ResponseEntity.ok(borrowRequestService.acceptRequest(id, authentication.getName()));
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(borrowRequestService.acceptRequest(id, currentUser.id()));
     }
 
     @PutMapping("/{id}/reject")
@@ -59,32 +60,32 @@ public class BorrowRequestController {
     public ResponseEntity<BorrowRequestResponse> rejectRequest(
             @PathVariable Long id,
             @RequestParam(required = false) String reason,
-            Authentication authentication) {
-        return ResponseEntity.ok(borrowRequestService.rejectRequest(id, authentication.getName(), reason));
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(borrowRequestService.rejectRequest(id, currentUser.id(), reason));
     }
 
     @PutMapping("/{id}/collected")
     @Operation(summary = "Confirm tool collected (ACCEPTED - COLLECTED) [Borrower only]")
     public ResponseEntity<BorrowRequestResponse> confirmCollected(
             @PathVariable Long id,
-            Authentication authentication) {
-        return ResponseEntity.ok(borrowRequestService.confirmCollected(id, authentication.getName()));
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(borrowRequestService.confirmCollected(id, currentUser.id()));
     }
 
     @PutMapping("/{id}/returned")
     @Operation(summary = "Confirm tool returned (COLLECTED - RETURNED) [Borrower only]")
     public ResponseEntity<BorrowRequestResponse> confirmReturned(
             @PathVariable Long id,
-            Authentication authentication) {
-        return ResponseEntity.ok(borrowRequestService.confirmReturned(id, authentication.getName()));
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(borrowRequestService.confirmReturned(id, currentUser.id()));
     }
 
     @PutMapping("/{id}/confirm-receipt")
     @Operation(summary = "Confirm tool received (RETURNED - COMPLETED) [Owner only]")
     public ResponseEntity<BorrowRequestResponse> confirmReceipt(
             @PathVariable Long id,
-            Authentication authentication) {
-        return ResponseEntity.ok(borrowRequestService.confirmReceipt(id, authentication.getName()));
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(borrowRequestService.confirmReceipt(id, currentUser.id()));
     }
 
     @PutMapping("/{id}/cancel")
@@ -92,15 +93,15 @@ public class BorrowRequestController {
     public ResponseEntity<BorrowRequestResponse> cancelRequest(
             @PathVariable Long id,
             @RequestParam(required = false) String reason,
-            Authentication authentication) {
-        return ResponseEntity.ok(borrowRequestService.cancelRequest(id, authentication.getName(), reason));
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(borrowRequestService.cancelRequest(id, currentUser.id(), reason));
     }
 
     @GetMapping("/{id}/timeline")
     @Operation(summary = "Get complete status timeline")
     public ResponseEntity<List<StatusHistoryDTO>> getStatusTimeline(
             @PathVariable Long id,
-            Authentication authentication) {
-        return ResponseEntity.ok(borrowRequestService.getStatusTimeline(id, authentication.getName()));
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(borrowRequestService.getStatusTimeline(id, currentUser.id()));
     }
 }
\ No newline at end of file
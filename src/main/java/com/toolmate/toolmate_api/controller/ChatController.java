@@ -42,7 +42,7 @@ public class ChatController {
             chatMessage.setStatus(ChatMessage.MessageStatus.SENT);
 
             // Save message to database
-            Message savedMessage = chatService.saveMessage(chatMessage, principal.getName());
+            Message savedMessage = chatService.saveMessage(chatMessage, Long.parseLong(principal.getName()));
             chatMessage.setId(savedMessage.getId());
 
             // Send to specific conversation room
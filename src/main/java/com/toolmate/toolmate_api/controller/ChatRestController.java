@@ -1,13 +1,14 @@
 package com.toolmate.toolmate_api.controller;
 
 import com.toolmate.toolmate_api.dto.response.ChatMessage;
+import com.toolmate.toolmate_api.security.AuthenticatedUser;
 import com.toolmate.toolmate_api.service.ChatService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -25,10 +26,10 @@ public class ChatRestController {
     @Operation(summary = "Get chat history for a borrow request")
     public ResponseEntity<List<ChatMessage>> getChatHistory(
             @PathVariable Long borrowRequestId,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
         List<ChatMessage> history = chatService.getChatHistory(
                 borrowRequestId,
-                authentication.getName()
+                currentUser.id()
         );
         return ResponseEntity.ok(history);
     }
@@ -37,17 +38,8 @@ public class ChatRestController {
     @Operation(summary = "Get unread message count")
     public ResponseEntity<Long> getUnreadCount(
             @PathVariable Long borrowRequestId,
-            Authentication authentication) {
-        // Extract user ID from authentication (you'll need to implement this)
-        Long userId = getUserIdFromAuth(authentication);
-
-        long count = chatService.getUnreadMessageCount(borrowRequestId, userId);
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        long count = chatService.getUnreadMessageCount(borrowRequestId, currentUser.id());
         return ResponseEntity.ok(count);
     }
-
-    private Long getUserIdFromAuth(Authentication authentication) {
-        // Implement this to get user ID from authentication
-        // You might need to enhance your UserDetailsService to include user ID
-        return 1L; // Placeholder
-    }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.toolmate.toolmate_api.controller;
 
 import com.toolmate.toolmate_api.dto.request.MessageRequest;
 import com.toolmate.toolmate_api.dto.response.MessageResponse;
+import com.toolmate.toolmate_api.security.AuthenticatedUser;
 import com.toolmate.toolmate_api.service.MessageService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -9,7 +10,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -27,15 +28,15 @@ public class MessageController {
     @Operation(summary = "Send a message")
     public ResponseEntity<MessageResponse> sendMessage(
             @Valid @RequestBody MessageRequest request,
-            Authentication authentication) {
-        return ResponseEntity.ok(messageService.sendMessage(request, authentication.getName()));
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(messageService.sendMessage(request, currentUser.id()));
     }
 
     @GetMapping("/borrow-request/{borrowRequestId}")
     @Operation(summary = "Get all messages for a borrow request")
     public ResponseEntity<List<MessageResponse>> getMessages(
             @PathVariable Long borrowRequestId,
-            Authentication authentication) {
-        return ResponseEntity.ok(messageService.getMessages(borrowRequestId, authentication.getName()));
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(messageService.getMessages(borrowRequestId, currentUser.id()));
     }
 }
\ No newline at end of file
@@ -1,13 +1,15 @@
 package com.toolmate.toolmate_api.controller;
 
-import com.toolmate.toolmate_api.entity.Notification;
+import com.toolmate.toolmate_api.dto.response.NotificationCatchUpResponse;
+import com.toolmate.toolmate_api.dto.response.NotificationResponse;
+import com.toolmate.toolmate_api.security.AuthenticatedUser;
 import com.toolmate.toolmate_api.service.NotificationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -23,35 +25,44 @@ public class NotificationController {
 
     @GetMapping
     @Operation(summary = "Get all my notifications")
-    public ResponseEntity<List<Notification>> getMyNotifications(Authentication authentication) {
-        return ResponseEntity.ok(notificationService.getMyNotifications(authentication.getName()));
+    public ResponseEntity<List<NotificationResponse>> getMyNotifications(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(notificationService.getMyNotifications(currentUser.id()));
     }
 
     @GetMapping("/unread")
     @Operation(summary = "Get unread notifications")
-    public ResponseEntity<List<Notification>> getUnreadNotifications(Authentication authentication) {
-        return ResponseEntity.ok(notificationService.getUnreadNotifications(authentication.getName()));
+    public ResponseEntity<List<NotificationResponse>> getUnreadNotifications(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(notificationService.getUnreadNotifications(currentUser.id()));
+    }
+
+    @GetMapping("/since")
+    @Operation(summary = "Get notifications newer than the last one seen (catch-up after reconnecting)")
+    public ResponseEntity<NotificationCatchUpResponse> getNotificationsSince(
+            @RequestParam(defaultValue = "0") Long lastSeenId,
+            @RequestParam(defaultValue = "50") int limit,
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(notificationService.getNotificationsSince(currentUser.id(), lastSeenId, limit));
     }
 
     @GetMapping("/unread/count")
     @Operation(summary = "Get unread notification count")
-    public ResponseEntity<Long> getUnreadCount(Authentication authentication) {
-        return ResponseEntity.ok(notificationService.getUnreadCount(authentication.getName()));
+    public ResponseEntity<Long> getUnreadCount(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(notificationService.getUnreadCount(currentUser.id()));
     }
 
     @PutMapping("/{id}/read")
     @Operation(summary = "Mark notification as read")
     public ResponseEntity<String> markAsRead(
             @PathVariable Long id,
-            Authentication authentication) {
-        notificationService.markAsRead(id, authentication.getName());
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        notificationService.markAsRead(id, currentUser.id());
         return ResponseEntity.ok("Notification marked as read");
     }
 
     @PutMapping("/read-all")
     @Operation(summary = "Mark all notifications as read")
-    public ResponseEntity<String> markAllAsRead(Authentication authentication) {
-        notificationService.markAllAsRead(authentication.getName());
+    public ResponseEntity<String> markAllAsRead(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        notificationService.markAllAsRead(currentUser.id());
         return ResponseEntity.ok("All notifications marked as read");
     }
 
@@ -59,8 +70,8 @@ public class NotificationController {
     @Operation(summary = "Delete notification")
     public ResponseEntity<String> deleteNotification(
             @PathVariable Long id,
-            Authentication authentication) {
-        notificationService.deleteNotification(id, authentication.getName());
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        notificationService.deleteNotification(id, currentUser.id());
         return ResponseEntity.ok("Notification deleted");
     }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.toolmate.toolmate_api.controller;
 
 import com.toolmate.toolmate_api.dto.request.ReviewRequest;
 import com.toolmate.toolmate_api.dto.response.ReviewResponse;
+import com.toolmate.toolmate_api.security.AuthenticatedUser;
 import com.toolmate.toolmate_api.service.ReviewService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -9,7 +10,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -27,8 +28,8 @@ public class ReviewController {
     @Operation(summary = "Create a review for a user")
     public ResponseEntity<ReviewResponse> createReview(
             @Valid @RequestBody ReviewRequest request,
-            Authentication authentication) {
-        return ResponseEntity.ok(reviewService.createReview(request, authentication.getName()));
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(reviewService.createReview(request, currentUser.id()));
     }
 
     @GetMapping("/user/{userId}")
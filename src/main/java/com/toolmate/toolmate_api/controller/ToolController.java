@@ -1,17 +1,24 @@
 package com.toolmate.toolmate_api.controller;
 
 import com.toolmate.toolmate_api.dto.request.ToolRequest;
+import com.toolmate.toolmate_api.dto.response.AvailabilityWindowResponse;
+import com.toolmate.toolmate_api.dto.response.ToolPageResponse;
 import com.toolmate.toolmate_api.dto.response.ToolResponse;
+import com.toolmate.toolmate_api.dto.response.ToolSuggestionResponse;
+import com.toolmate.toolmate_api.search.ToolFilter;
+import com.toolmate.toolmate_api.security.AuthenticatedUser;
 import com.toolmate.toolmate_api.service.ToolService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -27,30 +34,90 @@ public class ToolController {
     @Operation(summary = "Create a new tool listing")
     public ResponseEntity<ToolResponse> createTool(
             @Valid @RequestBody ToolRequest request,
-            Authentication authentication) {
-        return ResponseEntity.ok(toolService.createTool(request, authentication.getName()));
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(toolService.createTool(request, currentUser.id()));
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get tool by ID with calculated distance")
     public ResponseEntity<ToolResponse> getToolById(
             @PathVariable Long id,
-            Authentication authentication) {
-        return ResponseEntity.ok(toolService.getToolById(id, authentication.getName()));
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(toolService.getToolById(id, currentUser.id()));
     }
 
     @GetMapping("/available")
-    @Operation(summary = "Get all available tools nearby")
-    public ResponseEntity<List<ToolResponse>> getAvailableTools(
+    @Operation(summary = "Get available tools nearby, nearest first, one page at a time")
+    public ResponseEntity<ToolPageResponse> getAvailableTools(
             @RequestParam(required = false) Double maxDistance,
-            Authentication authentication) {
-        return ResponseEntity.ok(toolService.getAvailableTools(authentication.getName(), maxDistance));
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String condition,
+            @RequestParam(required = false) String rateType,
+            @RequestParam(required = false) Double minFee,
+            @RequestParam(required = false) Double maxFee,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime availableFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime availableTo,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor,
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        ToolFilter filter = new ToolFilter(category, condition, rateType, minFee, maxFee);
+        return ResponseEntity.ok(toolService.getAvailableTools(
+                currentUser.id(), maxDistance, filter, availableFrom, availableTo, limit, cursor));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search available tools by name, description and category, ranked by relevance and distance")
+    public ResponseEntity<List<ToolResponse>> searchTools(
+            @RequestParam String q,
+            @RequestParam(required = false) Double maxDistance,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime availableFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime availableTo,
+            @RequestParam(defaultValue = "20") int limit,
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(toolService.searchTools(
+                q, maxDistance, availableFrom, availableTo, limit, currentUser.id()));
+    }
+
+    @GetMapping("/search/fuzzy")
+    @Operation(summary = "Typo-tolerant tool name lookup, ranked by similarity then distance")
+    public ResponseEntity<List<ToolResponse>> fuzzySearchTools(
+            @RequestParam String q,
+            @RequestParam(required = false) Double maxDistance,
+            @RequestParam(defaultValue = "20") int limit,
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(toolService.fuzzySearchTools(q, maxDistance, limit, currentUser.id()));
+    }
+
+    @GetMapping("/autocomplete")
+    @Operation(summary = "Suggest tool names and categories for a typed prefix")
+    public ResponseEntity<List<ToolSuggestionResponse>> autocomplete(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(toolService.autocomplete(prefix, limit));
+    }
+
+    @GetMapping("/{id}/availability")
+    @Operation(summary = "Get the free windows between accepted loans of a tool (defaults to the next 30 days)")
+    public ResponseEntity<List<AvailabilityWindowResponse>> getFreeWindows(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(toolService.getFreeWindows(id, from, to));
+    }
+
+    @GetMapping("/{id}/availability/check")
+    @Operation(summary = "Check whether a tool is free for the whole date range")
+    public ResponseEntity<Boolean> checkAvailability(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        return ResponseEntity.ok(toolService.isToolFree(id, start, end));
     }
 
     @GetMapping("/my-tools")
     @Operation(summary = "Get my listed tools")
-    public ResponseEntity<List<ToolResponse>> getMyTools(Authentication authentication) {
-        return ResponseEntity.ok(toolService.getMyTools(authentication.getName()));
+    public ResponseEntity<List<ToolResponse>> getMyTools(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(toolService.getMyTools(currentUser.id()));
     }
 
     @PutMapping("/{id}")
@@ -58,16 +125,16 @@ public class ToolController {
     public ResponseEntity<ToolResponse> updateTool(
             @PathVariable Long id,
             @Valid @RequestBody ToolRequest request,
-            Authentication authentication) {
-        return ResponseEntity.ok(toolService.updateTool(id, request, authentication.getName()));
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(toolService.updateTool(id, request, currentUser.id()));
     }
 
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete a tool listing")
     public ResponseEntity<Void> deleteTool(
             @PathVariable Long id,
-            Authentication authentication) {
-        toolService.deleteTool(id, authentication.getName());
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        toolService.deleteTool(id, currentUser.id());
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.toolmate.toolmate_api.controller;
 import com.toolmate.toolmate_api.dto.request.ChangePasswordRequest;
 import com.toolmate.toolmate_api.dto.request.UpdateProfileRequest;
 import com.toolmate.toolmate_api.dto.response.UserDTO;
+import com.toolmate.toolmate_api.security.AuthenticatedUser;
 import com.toolmate.toolmate_api.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -10,7 +11,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 //import java.util.List;
@@ -26,8 +27,8 @@ public class UserController {
 
     @GetMapping("/me")
     @Operation(summary = "Get current user's profile")
-    public ResponseEntity<UserDTO> getCurrentUserProfile(Authentication authentication) {
-        return ResponseEntity.ok(userService.getCurrentUserProfile(authentication.getName()));
+    public ResponseEntity<UserDTO> getCurrentUserProfile(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(userService.getCurrentUserProfile(currentUser.id()));
     }
 
     @GetMapping("/{id}")
@@ -40,16 +41,16 @@ public class UserController {
     @Operation(summary = "Update current user's profile")
     public ResponseEntity<UserDTO> updateProfile(
            @Valid @RequestBody UpdateProfileRequest request,
-            Authentication authentication) {
-        return ResponseEntity.ok(userService.updateProfile(request, authentication.getName()));
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(userService.updateProfile(request, currentUser.id()));
     }
 
     @PutMapping("/change-password")
     @Operation(summary = "Change user password")
     public ResponseEntity<String> changePassword(
            @Valid @RequestBody ChangePasswordRequest request,
-            Authentication authentication) {
-        userService.changePassword(request, authentication.getName());
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        userService.changePassword(request, currentUser.id());
         return ResponseEntity.ok("Password changed successfully");
     }
 
@@ -57,14 +58,14 @@ public class UserController {
     @Operation(summary = "Update profile picture URL")
     public ResponseEntity<UserDTO> updateProfilePicture(
             @RequestParam String imageUrl,
-            Authentication authentication) {
-        return ResponseEntity.ok(userService.updateProfilePicture(imageUrl, authentication.getName()));
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(userService.updateProfilePicture(imageUrl, currentUser.id()));
     }
 
     @DeleteMapping("/account")
     @Operation(summary = "Delete user account (soft delete)")
-    public ResponseEntity<String> deleteAccount(Authentication authentication) {
-        userService.deleteAccount(authentication.getName());
+    public ResponseEntity<String> deleteAccount(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        userService.deleteAccount(currentUser.id());
         return ResponseEntity.ok("Account deleted successfully");
     }
 
@@ -72,8 +73,8 @@ public class UserController {
     @Operation(summary = "Update FCM device token for push notifications")
     public ResponseEntity<String> updateFcmToken(
             @RequestParam String token,
-            Authentication authentication) {
-        userService.updateFcmToken(token, authentication.getName());
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        userService.updateFcmToken(token, currentUser.id());
         return ResponseEntity.ok("FCM token updated successfully");
     }
 
@@ -0,0 +1,15 @@
+package com.toolmate.toolmate_api.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityWindowResponse {
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
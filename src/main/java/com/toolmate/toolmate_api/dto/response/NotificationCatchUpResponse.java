@@ -0,0 +1,16 @@
+package com.toolmate.toolmate_api.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationCatchUpResponse {
+    private List<NotificationResponse> notifications; // oldest first
+    private Long unreadCount;
+    private Boolean hasMore; // ask again with the last id to get the rest
+}
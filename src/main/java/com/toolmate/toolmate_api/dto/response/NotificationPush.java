@@ -0,0 +1,16 @@
+package com.toolmate.toolmate_api.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Sent to /user/queue/notifications when a notification is created
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationPush {
+    private NotificationResponse notification;
+    private Long unreadCount; // after this notification
+}
@@ -0,0 +1,23 @@
+package com.toolmate.toolmate_api.dto.response;
+
+import com.toolmate.toolmate_api.entity.NotificationType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationResponse {
+    private Long id;
+    private String title;
+    private String message;
+    private NotificationType type;
+    private Boolean isRead;
+    private Long relatedId;
+    private String priority;
+    private LocalDateTime createdAt;
+    private LocalDateTime readAt;
+}
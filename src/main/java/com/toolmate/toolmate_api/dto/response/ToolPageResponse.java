@@ -0,0 +1,15 @@
+package com.toolmate.toolmate_api.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ToolPageResponse {
+    private List<ToolResponse> tools;
+    private String nextCursor; // null on the last page
+}
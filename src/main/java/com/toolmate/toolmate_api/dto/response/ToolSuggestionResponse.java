@@ -0,0 +1,14 @@
+package com.toolmate.toolmate_api.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ToolSuggestionResponse {
+    private String text;
+    private String type; // NAME or CATEGORY
+    private Long weight;
+}
@@ -9,7 +9,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "borrow_requests")
+@Table(name = "borrow_requests", indexes = {
+        @Index(name = "idx_borrow_requests_tool_status", columnList = "tool_id, status")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,11 +21,16 @@ public class BorrowRequest {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    // Optimistic lock: concurrent writes to the same row fail instead of overwriting each other
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "tool_id", nullable = false)
     private Tool tool;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "borrower_id", nullable = false)
     private User borrower;
 
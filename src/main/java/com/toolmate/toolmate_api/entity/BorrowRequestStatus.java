@@ -6,7 +6,6 @@ public enum BorrowRequestStatus {
     REJECTED,
     COLLECTED,
     RETURNED,
-    IN_PROGRESS,
     COMPLETED,
     CANCELLED
 }
\ No newline at end of file
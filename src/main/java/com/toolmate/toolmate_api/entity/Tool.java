@@ -4,12 +4,17 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "tools")
+@Table(name = "tools", indexes = {
+        @Index(name = "idx_tools_available_owner", columnList = "is_available, owner_id")
+})
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,6 +24,11 @@ public class Tool {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Optimistic lock: concurrent writes to the same row fail instead of overwriting each other
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @Column(nullable = false)
     private String name;
 
@@ -32,6 +42,7 @@ public class Tool {
     private String condition; // New, Like New, Good, Fair
 
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "tool_images", joinColumns = @JoinColumn(name = "tool_id"))
     @Column(name = "image_url")
     private List<String> imageUrls = new ArrayList<>();
@@ -51,10 +62,11 @@ public class Tool {
     @Column(nullable = false)
     private Double rating = 0.0;
 
-    @Column(nullable = false)
+    // Only changed by the atomic increment in ToolRepository, never by entity updates
+    @Column(nullable = false, updatable = false)
     private Integer totalBorrows = 0;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id", nullable = false)
     private User owner;
 
@@ -4,12 +4,16 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_location", columnList = "latitude, longitude")
+})
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -46,10 +50,11 @@ public class User {
     @Column(nullable = false)
     private Double rating = 0.0;
 
-    @Column(nullable = false)
+    // Counters are only changed by the atomic increments in UserRepository, never by entity updates
+    @Column(nullable = false, updatable = false)
     private Integer totalBorrows = 0;
 
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     private Integer totalLends = 0;
 
     @Column(nullable = false)
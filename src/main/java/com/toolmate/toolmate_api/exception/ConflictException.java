@@ -0,0 +1,11 @@
+package com.toolmate.toolmate_api.exception;
+
+/**
+ * A write lost a race with a concurrent change to the same data; answered with 409
+ */
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.toolmate.toolmate_api.exception;
+
+/**
+ * A refresh token that is unknown, expired or revoked; answered with 401
+ */
+public class InvalidTokenException extends RuntimeException {
+
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.toolmate.toolmate_api.exception;
+
+/**
+ * A bounded resource is saturated; answered with 503 so clients back off and retry
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,162 @@
+package com.toolmate.toolmate_api.push;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker. Over the last window-size calls (once at least
+ * minimum-calls were made) it opens when the share of failed or of slow calls
+ * reaches its threshold. While open every call is refused; after open-duration a
+ * few trial calls are let through, and it closes again only if all of them succeed
+ * in time. Calls are whole batches, so a plain monitor is cheap enough.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int minimumCalls;
+    private final int failureRatePercent;
+    private final int slowRatePercent;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+
+    // Outcomes of the last calls, as a ring
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int trialPermits;
+    private int trialSuccesses;
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRatePercent,
+                          int slowRatePercent, Duration slowCall, Duration openDuration, int halfOpenCalls) {
+        this(name, windowSize, minimumCalls, failureRatePercent, slowRatePercent, slowCall, openDuration,
+                halfOpenCalls, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRatePercent, int slowRatePercent,
+                   Duration slowCall, Duration openDuration, int halfOpenCalls, LongSupplier nanoClock) {
+        this.name = name;
+        this.minimumCalls = minimumCalls;
+        this.failureRatePercent = failureRatePercent;
+        this.slowRatePercent = slowRatePercent;
+        this.slowCallNanos = slowCall.toNanos();
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.nanoClock = nanoClock;
+        this.failed = new boolean[windowSize];
+        this.slow = new boolean[windowSize];
+    }
+
+    /**
+     * Whether a call may go ahead now; every permitted call must be followed by onSuccess or onFailure
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialPermits = halfOpenCalls;
+            trialSuccesses = 0;
+            log.info("Circuit {} half-open, trying {} calls", name, halfOpenCalls);
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialPermits == 0) {
+                return false;
+            }
+            trialPermits--;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess(long durationNanos) {
+        record(false, durationNanos >= slowCallNanos);
+    }
+
+    public synchronized void onFailure(long durationNanos) {
+        record(true, durationNanos >= slowCallNanos);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * How long the breaker stays open from now, zero unless open
+     */
+    public synchronized Duration remainingOpen() {
+        if (state != State.OPEN) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(Math.max(0, openNanos - (nanoClock.getAsLong() - openedAt)));
+    }
+
+    private void record(boolean isFailure, boolean isSlow) {
+        switch (state) {
+            case OPEN -> {
+                // A call that started before the breaker opened; it no longer counts
+            }
+            case HALF_OPEN -> {
+                if (isFailure || isSlow) {
+                    open();
+                } else if (++trialSuccesses >= halfOpenCalls) {
+                    close();
+                }
+            }
+            case CLOSED -> {
+                if (recorded == failed.length) {
+                    failures -= failed[next] ? 1 : 0;
+                    slowCalls -= slow[next] ? 1 : 0;
+                } else {
+                    recorded++;
+                }
+                failed[next] = isFailure;
+                slow[next] = isSlow;
+                failures += isFailure ? 1 : 0;
+                slowCalls += isSlow ? 1 : 0;
+                next = (next + 1) % failed.length;
+
+                if (recorded >= minimumCalls
+                        && (failures * 100 >= failureRatePercent * recorded
+                        || slowCalls * 100 >= slowRatePercent * recorded)) {
+                    open();
+                }
+            }
+        }
+    }
+
+    private void open() {
+        log.warn("Circuit {} open for {} ms ({} of {} recent calls failed, {} slow)",
+                name, openNanos / 1_000_000, failures, recorded, slowCalls);
+        state = State.OPEN;
+        openedAt = nanoClock.getAsLong();
+        reset();
+    }
+
+    private void close() {
+        log.info("Circuit {} closed", name);
+        state = State.CLOSED;
+        reset();
+    }
+
+    private void reset() {
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+}
@@ -0,0 +1,345 @@
+package com.toolmate.toolmate_api.push;
+
+import com.google.firebase.messaging.AndroidConfig;
+import com.google.firebase.messaging.AndroidNotification;
+import com.google.firebase.messaging.BatchResponse;
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.google.firebase.messaging.Message;
+import com.google.firebase.messaging.MessagingErrorCode;
+import com.google.firebase.messaging.Notification;
+import com.google.firebase.messaging.SendResponse;
+import com.toolmate.toolmate_api.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Firebase Cloud Messaging sender. Messages from all callers are queued and
+ * coalesced into sendEach batches of up to 500 (FCM's limit); at most
+ * max-concurrency batches are in flight, and while they are the queue keeps
+ * filling, so batches grow under load. Transient failures are retried with
+ * exponential backoff and jitter; tokens FCM reports as unregistered are removed
+ * from their users so they are not tried again.
+ * The sender threads are a bulkhead: nothing else waits on FCM, and each call is
+ * cut off after call-timeout. A circuit breaker watches the calls; while it is open
+ * batches are not sent but parked in the bounded retry queue until it may close.
+ * Outcomes are counted under "notifications.push.sent", ".failed", ".pruned",
+ * ".dropped", ".timeouts" and ".breaker.rejected"; "notifications.push.breaker.state"
+ * is 1 for the breaker's current state.
+ */
+@Component
+@ConditionalOnProperty(name = "notifications.push.sender", havingValue = "fcm", matchIfMissing = true)
+@Slf4j
+public class FcmPushSender implements PushSender {
+
+    static final int MAX_BATCH = 500;
+
+    private static final Set<MessagingErrorCode> TRANSIENT = EnumSet.of(
+            MessagingErrorCode.UNAVAILABLE, MessagingErrorCode.INTERNAL, MessagingErrorCode.QUOTA_EXCEEDED);
+    private static final Set<MessagingErrorCode> DEAD_TOKEN = EnumSet.of(
+            MessagingErrorCode.UNREGISTERED, MessagingErrorCode.SENDER_ID_MISMATCH);
+
+    private record Outgoing(PushMessage message, int attempt) {
+    }
+
+    private final FirebaseMessaging firebaseMessaging;
+    private final UserRepository userRepository;
+    private final CircuitBreaker breaker;
+    private final BlockingQueue<Outgoing> queue;
+    private final Semaphore inFlight;
+    private final ExecutorService senders;
+    private final ScheduledThreadPoolExecutor retries;
+    private final Thread flusher;
+    private final int retryCapacity;
+    private final int maxAttempts;
+    private final Duration callTimeout;
+    private final Duration backoff;
+    private final Duration maxBackoff;
+    private final Duration drainTimeout;
+    private final Counter sent;
+    private final Counter failed;
+    private final Counter pruned;
+    private final Counter dropped;
+    private final Counter timeouts;
+    private final Counter shed;
+    private volatile boolean running = true;
+
+    public FcmPushSender(FirebaseMessaging firebaseMessaging,
+                         UserRepository userRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${notifications.push.queue-capacity:10000}") int queueCapacity,
+                         @Value("${notifications.push.retry-capacity:10000}") int retryCapacity,
+                         @Value("${notifications.push.max-concurrency:4}") int maxConcurrency,
+                         @Value("${notifications.push.call-timeout:15s}") Duration callTimeout,
+                         @Value("${notifications.push.max-attempts:5}") int maxAttempts,
+                         @Value("${notifications.push.backoff:500ms}") Duration backoff,
+                         @Value("${notifications.push.max-backoff:30s}") Duration maxBackoff,
+                         @Value("${notifications.push.drain-timeout:10s}") Duration drainTimeout,
+                         @Value("${notifications.push.breaker.window-size:20}") int breakerWindow,
+                         @Value("${notifications.push.breaker.minimum-calls:5}") int breakerMinimumCalls,
+                         @Value("${notifications.push.breaker.failure-rate:50}") int breakerFailureRate,
+                         @Value("${notifications.push.breaker.slow-rate:50}") int breakerSlowRate,
+                         @Value("${notifications.push.breaker.slow-call:5s}") Duration breakerSlowCall,
+                         @Value("${notifications.push.breaker.open-duration:30s}") Duration breakerOpenDuration,
+                         @Value("${notifications.push.breaker.half-open-calls:2}") int breakerHalfOpenCalls) {
+        this.firebaseMessaging = firebaseMessaging;
+        this.userRepository = userRepository;
+        this.breaker = new CircuitBreaker("fcm", breakerWindow, breakerMinimumCalls, breakerFailureRate,
+                breakerSlowRate, breakerSlowCall, breakerOpenDuration, breakerHalfOpenCalls);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.inFlight = new Semaphore(maxConcurrency);
+        this.retryCapacity = retryCapacity;
+        this.callTimeout = callTimeout;
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+        this.maxBackoff = maxBackoff;
+        this.drainTimeout = drainTimeout;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "push-fcm-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.retries = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "push-fcm-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("notifications.push.queue", queue, BlockingQueue::size)
+                .description("Push messages waiting for a batch")
+                .register(meterRegistry);
+        Gauge.builder("notifications.push.retry.queue", retries, executor -> executor.getQueue().size())
+                .description("Batches of push messages waiting to be retried")
+                .register(meterRegistry);
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            Gauge.builder("notifications.push.breaker.state", breaker, b -> b.getState() == state ? 1 : 0)
+                    .tag("state", state.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        this.sent = outcome(meterRegistry, "notifications.push.sent");
+        this.failed = outcome(meterRegistry, "notifications.push.failed");
+        this.pruned = outcome(meterRegistry, "notifications.push.pruned");
+        this.dropped = outcome(meterRegistry, "notifications.push.dropped");
+        this.timeouts = outcome(meterRegistry, "notifications.push.timeouts");
+        this.shed = outcome(meterRegistry, "notifications.push.breaker.rejected");
+
+        this.flusher = new Thread(this::flush, "push-fcm-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    @Override
+    public void send(List<PushMessage> messages) {
+        for (PushMessage message : messages) {
+            if (!running || !queue.offer(new Outgoing(message, 1))) {
+                dropped.increment();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        flusher.join(drainTimeout.toMillis());
+        senders.shutdown();
+        senders.awaitTermination(drainTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        // Scheduled retries are given up; the notifications stay in the users' inboxes
+        dropped.increment(retries.shutdownNow().size());
+    }
+
+    private void flush() {
+        List<Outgoing> batch = new ArrayList<>(MAX_BATCH);
+        while (running || !queue.isEmpty()) {
+            try {
+                Outgoing first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                List<Outgoing> chunk = List.copyOf(batch);
+                batch.clear();
+                if (!breaker.tryAcquire()) {
+                    park(chunk);
+                    continue;
+                }
+                inFlight.acquire();
+                senders.execute(() -> {
+                    try {
+                        deliver(chunk);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void deliver(List<Outgoing> chunk) {
+        long startedAt = System.nanoTime();
+        BatchResponse response;
+        Future<BatchResponse> call = firebaseMessaging.sendEachAsync(
+                chunk.stream().map(outgoing -> toMessage(outgoing.message())).toList());
+        try {
+            response = call.get(callTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            call.cancel(true);
+            breaker.onFailure(System.nanoTime() - startedAt);
+            timeouts.increment(chunk.size());
+            retry(chunk);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            breaker.onFailure(System.nanoTime() - startedAt);
+            retry(chunk);
+            return;
+        } catch (ExecutionException e) {
+            breaker.onFailure(System.nanoTime() - startedAt);
+            if (e.getCause() instanceof FirebaseMessagingException fme && !TRANSIENT.contains(fme.getMessagingErrorCode())) {
+                failed.increment(chunk.size());
+                log.warn("FCM rejected a batch of {} messages: {}", chunk.size(), fme.getMessagingErrorCode(), fme);
+            } else {
+                retry(chunk);
+            }
+            return;
+        }
+
+        List<Outgoing> toRetry = new ArrayList<>();
+        List<String> deadTokens = new ArrayList<>();
+        List<SendResponse> responses = response.getResponses();
+        for (int i = 0; i < responses.size(); i++) {
+            SendResponse result = responses.get(i);
+            if (result.isSuccessful()) {
+                sent.increment();
+                continue;
+            }
+            MessagingErrorCode code = result.getException().getMessagingErrorCode();
+            if (DEAD_TOKEN.contains(code)) {
+                deadTokens.add(chunk.get(i).message().token());
+            } else if (TRANSIENT.contains(code)) {
+                toRetry.add(chunk.get(i));
+            } else {
+                failed.increment();
+                log.debug("FCM message failed: {}", code);
+            }
+        }
+        // FCM answered, but mostly with "try again later": that is an outage too
+        long duration = System.nanoTime() - startedAt;
+        if (toRetry.size() * 2 > chunk.size()) {
+            breaker.onFailure(duration);
+        } else {
+            breaker.onSuccess(duration);
+        }
+        retry(toRetry);
+        prune(deadTokens);
+    }
+
+    /**
+     * The breaker refused the batch: hold it until the breaker may let calls through again,
+     * without spending one of its attempts
+     */
+    private void park(List<Outgoing> chunk) {
+        shed.increment(chunk.size());
+        long delay = Math.max(breaker.remainingOpen().toMillis(), backoff.toMillis());
+        schedule(chunk, delay + ThreadLocalRandom.current().nextLong(backoff.toMillis() + 1));
+    }
+
+    private void retry(List<Outgoing> outgoing) {
+        Map<Integer, List<Outgoing>> byAttempt = outgoing.stream()
+                .collect(Collectors.groupingBy(Outgoing::attempt));
+        byAttempt.forEach((attempt, messages) -> {
+            if (attempt >= maxAttempts) {
+                failed.increment(messages.size());
+                return;
+            }
+            schedule(messages.stream().map(message -> new Outgoing(message.message(), attempt + 1)).toList(),
+                    delay(attempt));
+        });
+    }
+
+    private void schedule(List<Outgoing> messages, long delayMillis) {
+        if (!running || retries.getQueue().size() >= retryCapacity) {
+            dropped.increment(messages.size());
+            return;
+        }
+        retries.schedule(() -> messages.forEach(message -> {
+            if (!queue.offer(message)) {
+                dropped.increment();
+            }
+        }), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Exponential backoff with jitter: half the step is fixed, the other half random
+    private long delay(int attempt) {
+        long step = Math.min(maxBackoff.toMillis(), backoff.toMillis() << Math.min(attempt - 1, 20));
+        return step / 2 + ThreadLocalRandom.current().nextLong(step / 2 + 1);
+    }
+
+    private void prune(List<String> tokens) {
+        if (tokens.isEmpty()) {
+            return;
+        }
+        try {
+            pruned.increment(userRepository.clearFcmTokens(tokens));
+        } catch (RuntimeException e) {
+            log.warn("Could not prune {} unregistered FCM tokens", tokens.size(), e);
+        }
+    }
+
+    private static Message toMessage(PushMessage message) {
+        Message.Builder builder = Message.builder()
+                .setToken(message.token())
+                .setNotification(Notification.builder()
+                        .setTitle(message.title())
+                        .setBody(message.body())
+                        .build())
+                .setAndroidConfig(AndroidConfig.builder()
+                        .setPriority(AndroidConfig.Priority.HIGH)
+                        .setNotification(AndroidNotification.builder()
+                                .setSound("default")
+                                .setColor("#6200EE") // Your app's primary color
+                                .build())
+                        .build());
+        if (message.data() != null && !message.data().isEmpty()) {
+            builder.putAllData(message.data());
+        }
+        return builder.build();
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String name) {
+        return Counter.builder(name)
+                .tag("sender", "fcm")
+                .register(meterRegistry);
+    }
+}
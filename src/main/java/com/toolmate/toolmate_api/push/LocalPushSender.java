@@ -0,0 +1,58 @@
+package com.toolmate.toolmate_api.push;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process stand-in for FCM, for local runs and offline load tests. Messages are
+ * "delivered" after a configurable latency and counted under the same meters as
+ * the real sender, so dashboards work unchanged.
+ */
+@Component
+@ConditionalOnProperty(name = "notifications.push.sender", havingValue = "local")
+@Slf4j
+public class LocalPushSender implements PushSender {
+
+    private final Duration latency;
+    private final Counter sent;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "push-local");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LocalPushSender(MeterRegistry meterRegistry,
+                           @Value("${notifications.push.local.latency:50ms}") Duration latency) {
+        this.latency = latency;
+        this.sent = Counter.builder("notifications.push.sent")
+                .tag("sender", "local")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void send(List<PushMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        scheduler.schedule(() -> {
+            sent.increment(messages.size());
+            messages.forEach(message -> log.debug("Push to {}: {}", message.token(), message.title()));
+        }, latency.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+}
@@ -0,0 +1,9 @@
+package com.toolmate.toolmate_api.push;
+
+import java.util.Map;
+
+/**
+ * One push notification addressed to one device token
+ */
+public record PushMessage(String token, String title, String body, Map<String, String> data) {
+}
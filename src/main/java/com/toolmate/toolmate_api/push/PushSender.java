@@ -0,0 +1,14 @@
+package com.toolmate.toolmate_api.push;
+
+import java.util.List;
+
+/**
+ * Delivers push notifications to devices. Implementations return immediately and
+ * deliver in the background; a failed push is logged and counted, never thrown,
+ * because the notification itself is already stored.
+ * Selected with notifications.push.sender=fcm (default) or local.
+ */
+public interface PushSender {
+
+    void send(List<PushMessage> messages);
+}
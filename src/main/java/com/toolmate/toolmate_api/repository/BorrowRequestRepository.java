@@ -2,21 +2,102 @@ package com.toolmate.toolmate_api.repository;
 
 import com.toolmate.toolmate_api.entity.BorrowRequest;
 import com.toolmate.toolmate_api.entity.BorrowRequestStatus;
-import com.toolmate.toolmate_api.entity.Tool;
 import com.toolmate.toolmate_api.entity.User;
+import com.toolmate.toolmate_api.search.ToolBooking;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BorrowRequestRepository extends JpaRepository<BorrowRequest, Long> {
-    List<BorrowRequest> findByBorrower(User borrower);
-    List<BorrowRequest> findByTool(Tool tool);
 
-    @Query("SELECT br FROM BorrowRequest br WHERE br.tool.owner = :owner")
-    List<BorrowRequest> findByToolOwner(User owner);
+    // Columns of a BorrowRequestResponse: the request, its tool and owner, and the borrower
+    String REQUEST_ROW_SELECT = "SELECT br.id AS id, br.startDate AS startDate, br.endDate AS endDate, " +
+            "br.status AS status, br.message AS message, br.createdAt AS createdAt, " +
+            "t.id AS toolId, t.name AS toolName, t.description AS toolDescription, t.category AS toolCategory, " +
+            "t.condition AS toolCondition, t.isAvailable AS toolIsAvailable, t.rentalFee AS toolRentalFee, " +
+            "t.rateType AS toolRateType, t.isFullyCharged AS toolIsFullyCharged, t.rating AS toolRating, " +
+            "t.totalBorrows AS toolTotalBorrows, t.createdAt AS toolCreatedAt, " +
+            "o.id AS ownerId, o.fullName AS ownerFullName, o.rating AS ownerRating, " +
+            "o.profileImageUrl AS ownerProfileImageUrl, " +
+            "b.id AS borrowerId, b.fullName AS borrowerFullName, b.email AS borrowerEmail, " +
+            "b.phoneNumber AS borrowerPhoneNumber, b.latitude AS borrowerLatitude, b.longitude AS borrowerLongitude, " +
+            "b.address AS borrowerAddress, b.profileImageUrl AS borrowerProfileImageUrl, b.rating AS borrowerRating, " +
+            "b.totalBorrows AS borrowerTotalBorrows, b.totalLends AS borrowerTotalLends " +
+            "FROM BorrowRequest br JOIN br.tool t JOIN t.owner o JOIN br.borrower b ";
+
+    // Everything a lifecycle transition reads or changes, in one query
+    @Query("SELECT br FROM BorrowRequest br JOIN FETCH br.tool t JOIN FETCH t.owner JOIN FETCH br.borrower " +
+            "WHERE br.id = :id")
+    Optional<BorrowRequest> findForTransition(@Param("id") Long id);
+
+    @Query("SELECT br FROM BorrowRequest br JOIN FETCH br.tool t JOIN FETCH t.owner JOIN FETCH br.borrower " +
+            "WHERE br.id IN :ids")
+    List<BorrowRequest> findAllForTransition(@Param("ids") Collection<Long> ids);
 
     List<BorrowRequest> findByStatus(BorrowRequestStatus status);
     List<BorrowRequest> findByBorrowerAndStatus(User borrower, BorrowRequestStatus status);
-}
\ No newline at end of file
+
+    @Query(REQUEST_ROW_SELECT + "WHERE b.id = :borrowerId")
+    List<BorrowRequestRow> findRowsByBorrowerId(@Param("borrowerId") Long borrowerId);
+
+    @Query(REQUEST_ROW_SELECT + "WHERE o.id = :ownerId")
+    List<BorrowRequestRow> findRowsByToolOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query("SELECT new com.toolmate.toolmate_api.search.ToolBooking(br.id, br.tool.id, br.startDate, br.endDate) " +
+            "FROM BorrowRequest br WHERE br.status IN :statuses")
+    List<ToolBooking> findBookingsByStatusIn(@Param("statuses") Collection<BorrowRequestStatus> statuses);
+
+    // Half-open overlap with [startDate, endDate) by any request other than excludeRequestId (null for a new one);
+    // served by idx_borrow_requests_tool_status
+    @Query("SELECT COUNT(br) > 0 FROM BorrowRequest br WHERE br.tool.id = :toolId AND br.status IN :statuses " +
+            "AND br.startDate < :endDate AND br.endDate > :startDate " +
+            "AND (:excludeRequestId IS NULL OR br.id <> :excludeRequestId)")
+    boolean existsOverlappingBooking(@Param("toolId") Long toolId,
+                                     @Param("excludeRequestId") Long excludeRequestId,
+                                     @Param("statuses") Collection<BorrowRequestStatus> statuses,
+                                     @Param("startDate") LocalDateTime startDate,
+                                     @Param("endDate") LocalDateTime endDate);
+
+    interface BorrowRequestRow {
+        Long getId();
+        LocalDateTime getStartDate();
+        LocalDateTime getEndDate();
+        BorrowRequestStatus getStatus();
+        String getMessage();
+        LocalDateTime getCreatedAt();
+        Long getToolId();
+        String getToolName();
+        String getToolDescription();
+        String getToolCategory();
+        String getToolCondition();
+        Boolean getToolIsAvailable();
+        Double getToolRentalFee();
+        String getToolRateType();
+        Boolean getToolIsFullyCharged();
+        Double getToolRating();
+        Integer getToolTotalBorrows();
+        LocalDateTime getToolCreatedAt();
+        Long getOwnerId();
+        String getOwnerFullName();
+        Double getOwnerRating();
+        String getOwnerProfileImageUrl();
+        Long getBorrowerId();
+        String getBorrowerFullName();
+        String getBorrowerEmail();
+        String getBorrowerPhoneNumber();
+        Double getBorrowerLatitude();
+        Double getBorrowerLongitude();
+        String getBorrowerAddress();
+        String getBorrowerProfileImageUrl();
+        Double getBorrowerRating();
+        Integer getBorrowerTotalBorrows();
+        Integer getBorrowerTotalLends();
+    }
+}
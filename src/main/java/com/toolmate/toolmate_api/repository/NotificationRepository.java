@@ -1,14 +1,42 @@
 package com.toolmate.toolmate_api.repository;
 
+import com.toolmate.toolmate_api.dto.response.NotificationResponse;
 import com.toolmate.toolmate_api.entity.Notification;
 import com.toolmate.toolmate_api.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
-    List<Notification> findByUserOrderByCreatedAtDesc(User user);
     List<Notification> findByUserAndIsReadFalseOrderByCreatedAtDesc(User user);
-    Long countByUserAndIsReadFalse(User user);
+    Long countByUserIdAndIsReadFalse(Long userId);
+
+    String RESPONSE_SELECT = "SELECT new com.toolmate.toolmate_api.dto.response.NotificationResponse(" +
+            "n.id, n.title, n.message, n.type, n.isRead, n.relatedId, n.priority, n.createdAt, n.readAt) " +
+            "FROM Notification n ";
+
+    @Query(RESPONSE_SELECT + "WHERE n.user.id = :userId ORDER BY n.createdAt DESC")
+    List<NotificationResponse> findResponsesByUserId(@Param("userId") Long userId);
+
+    @Query(RESPONSE_SELECT + "WHERE n.user.id = :userId AND n.isRead = false ORDER BY n.createdAt DESC")
+    List<NotificationResponse> findUnreadResponsesByUserId(@Param("userId") Long userId);
+
+    @Query(RESPONSE_SELECT + "WHERE n.user.id = :userId AND n.id > :lastSeenId ORDER BY n.id ASC")
+    List<NotificationResponse> findResponsesSince(@Param("userId") Long userId,
+                                                  @Param("lastSeenId") Long lastSeenId,
+                                                  Pageable pageable);
+
+    @Query("SELECT n.user.id AS userId, COUNT(n) AS count FROM Notification n " +
+            "WHERE n.user.id IN :userIds AND n.isRead = false GROUP BY n.user.id")
+    List<UnreadCount> countUnreadByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    interface UnreadCount {
+        Long getUserId();
+        Long getCount();
+    }
 }
\ No newline at end of file
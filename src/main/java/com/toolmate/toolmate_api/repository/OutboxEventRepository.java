@@ -0,0 +1,35 @@
+package com.toolmate.toolmate_api.repository;
+
+import com.toolmate.toolmate_api.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Rows locked by another relay instance are skipped rather than waited for
+    @Query(value = "SELECT * FROM outbox_events WHERE processed_at IS NULL AND next_attempt_at <= :now " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> claimPending(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM outbox_events WHERE processed_at IS NULL AND next_attempt_at <= :now " +
+            "AND borrow_request_id IN (:borrowRequestIds) ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<OutboxEvent> claimPendingForRequests(@Param("borrowRequestIds") Collection<Long> borrowRequestIds,
+                                              @Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM outbox_events WHERE id = :id AND processed_at IS NULL FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    Optional<OutboxEvent> claimPendingById(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+}
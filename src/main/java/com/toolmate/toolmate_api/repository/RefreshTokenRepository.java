@@ -0,0 +1,43 @@
+package com.toolmate.toolmate_api.repository;
+
+import com.toolmate.toolmate_api.entity.RefreshToken;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    // Locked so two concurrent refreshes with the same token cannot both rotate it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // Rows still granting something: a usable refresh token or a live, unrevoked access token
+    String LIVE_CONDITION = "(r.revoked = false OR (r.accessRevoked = false AND r.accessExpiresAt > :now))";
+
+    @Query("SELECT r FROM RefreshToken r WHERE r.familyId = :familyId AND " + LIVE_CONDITION)
+    List<RefreshToken> findLiveByFamilyId(@Param("familyId") String familyId, @Param("now") LocalDateTime now);
+
+    @Query("SELECT r FROM RefreshToken r WHERE r.user.id = :userId AND " + LIVE_CONDITION)
+    List<RefreshToken> findLiveByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @Query("SELECT r.accessJti AS jti, r.accessExpiresAt AS expiresAt FROM RefreshToken r " +
+            "WHERE r.accessRevoked = true AND r.accessExpiresAt > :now")
+    List<RevokedAccess> findRevokedAccess(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.expiresAt < :now AND r.accessExpiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+    interface RevokedAccess {
+        String getJti();
+        LocalDateTime getExpiresAt();
+    }
+}
@@ -1,19 +1,161 @@
 package com.toolmate.toolmate_api.repository;
 
 import com.toolmate.toolmate_api.entity.Tool;
-import com.toolmate.toolmate_api.entity.User;
+import com.toolmate.toolmate_api.search.ToolAttributes;
+import com.toolmate.toolmate_api.search.ToolLocation;
+import com.toolmate.toolmate_api.search.ToolName;
+import com.toolmate.toolmate_api.search.ToolText;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Repository
 public interface ToolRepository extends JpaRepository<Tool, Long> {
-    List<Tool> findByOwner(User owner);
+
+    // Bumps the tool's version at commit, so two transactions booking the same tool cannot both succeed
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT t FROM Tool t WHERE t.id = :id")
+    Optional<Tool> findForBooking(@Param("id") Long id);
+
+    // Atomic, so concurrent completions never lose a count; does not touch the version
+    @Modifying
+    @Query("UPDATE Tool t SET t.totalBorrows = t.totalBorrows + 1 WHERE t.id = :id")
+    int incrementTotalBorrows(@Param("id") Long id);
+
+    // Columns of a ToolResponse, owner included, for read-only listings
+    String TOOL_ROW_SELECT = "SELECT t.id AS id, t.name AS name, t.description AS description, " +
+            "t.category AS category, t.condition AS condition, t.isAvailable AS isAvailable, " +
+            "t.rentalFee AS rentalFee, t.rateType AS rateType, t.isFullyCharged AS isFullyCharged, " +
+            "t.rating AS rating, t.totalBorrows AS totalBorrows, t.createdAt AS createdAt, " +
+            "o.id AS ownerId, o.fullName AS ownerFullName, o.rating AS ownerRating, " +
+            "o.profileImageUrl AS ownerProfileImageUrl, o.latitude AS ownerLatitude, o.longitude AS ownerLongitude " +
+            "FROM Tool t JOIN t.owner o ";
+
     List<Tool> findByCategory(String category);
     List<Tool> findByIsAvailableTrue();
 
-    @Query("SELECT t FROM Tool t WHERE t.isAvailable = true AND t.owner.id != :userId")
-    List<Tool> findAvailableToolsExcludingUser(@Param("userId") Long userId);
+    @Query("SELECT new com.toolmate.toolmate_api.search.ToolLocation(t.id, o.id, o.latitude, o.longitude) " +
+            "FROM Tool t JOIN t.owner o WHERE t.isAvailable = true")
+    List<ToolLocation> findAvailableToolLocations();
+
+    @Query("SELECT new com.toolmate.toolmate_api.search.ToolAttributes(t.id, o.id, o.latitude, o.longitude, " +
+            "t.category, t.condition, t.rateType, t.rentalFee) FROM Tool t JOIN t.owner o WHERE t.isAvailable = true")
+    List<ToolAttributes> findAvailableToolAttributes();
+
+    @Query("SELECT new com.toolmate.toolmate_api.search.ToolText(t.id, t.name, t.description, t.category) FROM Tool t")
+    List<ToolText> findAllToolText();
+
+    @Query("SELECT new com.toolmate.toolmate_api.search.ToolName(t.id, t.name, t.category, t.totalBorrows) FROM Tool t")
+    List<ToolName> findAllToolNames();
+
+    // Radius search pushed into PostgreSQL: bounding box on the owner's coordinates first,
+    // then the exact Haversine distance, returning one page of ids and distances after the cursor.
+    // With a date range, tools holding an overlapping booking (a request in activeStatuses) are skipped
+    @Query(value = "SELECT nearby.id AS id, nearby.distance AS distance FROM (" +
+            "  SELECT t.id AS id, 6371.0 * 2 * ASIN(SQRT(" +
+            "      POWER(SIN(RADIANS(u.latitude - :latitude) / 2), 2) +" +
+            "      COS(RADIANS(:latitude)) * COS(RADIANS(u.latitude)) *" +
+            "      POWER(SIN(RADIANS(u.longitude - :longitude) / 2), 2))) AS distance" +
+            "  FROM tools t JOIN users u ON u.id = t.owner_id" +
+            "  WHERE t.is_available = true AND t.owner_id <> :userId" +
+            "    AND u.latitude BETWEEN :minLat AND :maxLat" +
+            "    AND u.longitude BETWEEN :minLon AND :maxLon" +
+            "    AND (CAST(:category AS VARCHAR) IS NULL OR t.category = CAST(:category AS VARCHAR))" +
+            "    AND (CAST(:condition AS VARCHAR) IS NULL OR t.condition = CAST(:condition AS VARCHAR))" +
+            "    AND (CAST(:rateType AS VARCHAR) IS NULL OR t.rate_type = CAST(:rateType AS VARCHAR))" +
+            "    AND t.rental_fee BETWEEN :minFee AND :maxFee" +
+            "    AND (CAST(:availableFrom AS TIMESTAMP) IS NULL OR NOT EXISTS (" +
+            "      SELECT 1 FROM borrow_requests br WHERE br.tool_id = t.id" +
+            "        AND br.status IN (:activeStatuses)" +
+            "        AND br.start_date < CAST(:availableTo AS TIMESTAMP)" +
+            "        AND br.end_date > CAST(:availableFrom AS TIMESTAMP)))" +
+            ") nearby WHERE nearby.distance <= :radius" +
+            "  AND (nearby.distance > :afterDistance OR (nearby.distance = :afterDistance AND nearby.id > :afterId)) " +
+            "ORDER BY nearby.distance, nearby.id LIMIT :limit",
+            nativeQuery = true)
+    List<ToolDistance> findAvailableToolIdsWithinRadius(@Param("userId") Long userId,
+                                                        @Param("latitude") double latitude,
+                                                        @Param("longitude") double longitude,
+                                                        @Param("minLat") double minLat,
+                                                        @Param("maxLat") double maxLat,
+                                                        @Param("minLon") double minLon,
+                                                        @Param("maxLon") double maxLon,
+                                                        @Param("radius") double radius,
+                                                        @Param("category") String category,
+                                                        @Param("condition") String condition,
+                                                        @Param("rateType") String rateType,
+                                                        @Param("minFee") double minFee,
+                                                        @Param("maxFee") double maxFee,
+                                                        @Param("availableFrom") LocalDateTime availableFrom,
+                                                        @Param("availableTo") LocalDateTime availableTo,
+                                                        @Param("activeStatuses") Collection<String> activeStatuses,
+                                                        @Param("afterDistance") double afterDistance,
+                                                        @Param("afterId") long afterId,
+                                                        @Param("limit") int limit);
+
+    @Query(TOOL_ROW_SELECT + "WHERE t.id = :id")
+    Optional<ToolRow> findToolRowById(@Param("id") Long id);
+
+    @Query(TOOL_ROW_SELECT + "WHERE t.id IN :ids")
+    List<ToolRow> findToolRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(TOOL_ROW_SELECT + "WHERE o.id = :ownerId")
+    List<ToolRow> findToolRowsByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query("SELECT t.id AS toolId, i AS imageUrl FROM Tool t JOIN t.imageUrls i WHERE t.id IN :toolIds")
+    List<ToolImage> findToolImagesByToolIdIn(@Param("toolIds") Collection<Long> toolIds);
+
+    /**
+     * Image lists of many tools in one query, keyed by tool id
+     */
+    default Map<Long, List<String>> findImageUrlsByToolIds(Collection<Long> toolIds) {
+        if (toolIds.isEmpty()) {
+            return Map.of();
+        }
+        return findToolImagesByToolIdIn(toolIds).stream()
+                .collect(Collectors.groupingBy(ToolImage::getToolId,
+                        Collectors.mapping(ToolImage::getImageUrl, Collectors.toList())));
+    }
+
+    interface ToolRow {
+        Long getId();
+        String getName();
+        String getDescription();
+        String getCategory();
+        String getCondition();
+        Boolean getIsAvailable();
+        Double getRentalFee();
+        String getRateType();
+        Boolean getIsFullyCharged();
+        Double getRating();
+        Integer getTotalBorrows();
+        LocalDateTime getCreatedAt();
+        Long getOwnerId();
+        String getOwnerFullName();
+        Double getOwnerRating();
+        String getOwnerProfileImageUrl();
+        Double getOwnerLatitude();
+        Double getOwnerLongitude();
+    }
+
+    interface ToolImage {
+        Long getToolId();
+        String getImageUrl();
+    }
+
+    interface ToolDistance {
+        Long getId();
+        Double getDistance();
+    }
 }
\ No newline at end of file
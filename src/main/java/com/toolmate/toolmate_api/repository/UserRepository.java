@@ -1,12 +1,40 @@
 package com.toolmate.toolmate_api.repository;
 
+import com.toolmate.toolmate_api.dto.response.UserDTO;
 import com.toolmate.toolmate_api.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Boolean existsByEmail(String email);
+
+    // Read-only lookups that skip the managed entity
+    String PROFILE_SELECT = "SELECT new com.toolmate.toolmate_api.dto.response.UserDTO(u.id, u.fullName, u.email, " +
+            "u.phoneNumber, u.latitude, u.longitude, u.address, u.profileImageUrl, u.rating, " +
+            "u.totalBorrows, u.totalLends) FROM User u ";
+
+    @Query(PROFILE_SELECT + "WHERE u.id = :id")
+    Optional<UserDTO> findProfileById(@Param("id") Long id);
+
+    // Atomic counter updates; the columns are not updatable through the entity
+    @Modifying
+    @Query("UPDATE User u SET u.totalBorrows = u.totalBorrows + 1 WHERE u.id = :id")
+    int incrementTotalBorrows(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE User u SET u.totalLends = u.totalLends + 1 WHERE u.id = :id")
+    int incrementTotalLends(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.fcmToken = NULL WHERE u.fcmToken IN :tokens")
+    int clearFcmTokens(@Param("tokens") Collection<String> tokens);
 }
\ No newline at end of file
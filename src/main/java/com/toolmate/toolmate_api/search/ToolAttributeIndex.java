@@ -0,0 +1,284 @@
+package com.toolmate.toolmate_api.search;
+
+import com.toolmate.toolmate_api.entity.Tool;
+import com.toolmate.toolmate_api.repository.ToolRepository;
+import com.toolmate.toolmate_api.support.AfterCommit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Columnar snapshot of available tools for filtered nearby queries.
+ * Every tool occupies a dense slot in primitive arrays, and each category,
+ * condition, rate type and rental-fee bucket keeps a bitmap of slots, so a
+ * multi-filter query is a handful of bitmap ANDs followed by one distance
+ * pass over the surviving slots.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ToolAttributeIndex {
+
+    // Upper bounds of the rental fee buckets; bucket 0 holds free tools
+    private static final double[] FEE_BUCKET_BOUNDS = {0.0, 500.0, 1000.0, 2500.0, 5000.0, 10000.0};
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ToolRepository toolRepository;
+
+    private long[] toolIds = new long[INITIAL_CAPACITY];
+    private long[] ownerIds = new long[INITIAL_CAPACITY];
+    private double[] latitudes = new double[INITIAL_CAPACITY];
+    private double[] longitudes = new double[INITIAL_CAPACITY];
+    private double[] fees = new double[INITIAL_CAPACITY];
+    private String[] categories = new String[INITIAL_CAPACITY];
+    private String[] conditions = new String[INITIAL_CAPACITY];
+    private String[] rateTypes = new String[INITIAL_CAPACITY];
+    private int slotCount = 0;
+
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final Map<Long, Integer> slotByTool = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final Map<String, BitSet> byCategory = new HashMap<>();
+    private final Map<String, BitSet> byCondition = new HashMap<>();
+    private final Map<String, BitSet> byRateType = new HashMap<>();
+    private final BitSet[] byFeeBucket = new BitSet[FEE_BUCKET_BOUNDS.length + 1];
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready = false;
+
+    {
+        for (int i = 0; i < byFeeBucket.length; i++) {
+            byFeeBucket[i] = new BitSet();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ToolAttributes> available = toolRepository.findAvailableToolAttributes();
+
+        lock.writeLock().lock();
+        try {
+            slotCount = 0;
+            freeSlots.clear();
+            slotByTool.clear();
+            live.clear();
+            byCategory.clear();
+            byCondition.clear();
+            byRateType.clear();
+            Arrays.stream(byFeeBucket).forEach(BitSet::clear);
+            available.forEach(this::put);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Tool attribute index built with {} tools", available.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Nearest tools matching the filter and the optional accept test after the cursor hit (exclusive), up to limit
+     */
+    public List<ToolGeoIndex.Hit> findNearest(double latitude, double longitude, Double maxDistance,
+                                              Long excludeOwnerId, ToolFilter filter,
+                                              int limit, ToolGeoIndex.Hit after, LongPredicate accept) {
+        PriorityQueue<ToolGeoIndex.Hit> heap = new PriorityQueue<>(limit + 1, ToolGeoIndex.NEAREST_FIRST.reversed());
+        double minFee = filter.minFee() != null ? filter.minFee() : Double.NEGATIVE_INFINITY;
+        double maxFee = filter.maxFee() != null ? filter.maxFee() : Double.POSITIVE_INFINITY;
+
+        lock.readLock().lock();
+        try {
+            BitSet matches = (BitSet) live.clone();
+            if (!and(matches, byCategory, filter.category())
+                    || !and(matches, byCondition, filter.condition())
+                    || !and(matches, byRateType, filter.rateType())) {
+                return List.of();
+            }
+            if (filter.minFee() != null || filter.maxFee() != null) {
+                BitSet feeMatches = new BitSet();
+                for (int bucket = feeBucket(minFee); bucket <= feeBucket(maxFee); bucket++) {
+                    feeMatches.or(byFeeBucket[bucket]);
+                }
+                matches.and(feeMatches);
+            }
+
+            for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+                // Buckets are coarse: re-check the exact fee at the range edges
+                if (fees[slot] < minFee || fees[slot] > maxFee || ownerIds[slot] == excludeOwnerId) {
+                    continue;
+                }
+                double distance = ToolGeoIndex.distanceKm(latitude, longitude, latitudes[slot], longitudes[slot]);
+                if (maxDistance != null && distance > maxDistance) {
+                    continue;
+                }
+                ToolGeoIndex.Hit hit = new ToolGeoIndex.Hit(toolIds[slot], distance);
+                if (after != null && ToolGeoIndex.NEAREST_FIRST.compare(hit, after) <= 0) {
+                    continue;
+                }
+                boolean full = heap.size() >= limit;
+                if (full && ToolGeoIndex.NEAREST_FIRST.compare(hit, heap.peek()) >= 0) {
+                    continue;
+                }
+                if (accept != null && !accept.test(toolIds[slot])) {
+                    continue;
+                }
+                if (full) {
+                    heap.poll();
+                }
+                heap.add(hit);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<ToolGeoIndex.Hit> hits = new ArrayList<>(heap);
+        hits.sort(ToolGeoIndex.NEAREST_FIRST);
+        return hits;
+    }
+
+    // ========== MAINTENANCE (applied after the surrounding transaction commits) ==========
+
+    public void onToolSaved(Tool tool) {
+        ToolAttributes attributes = new ToolAttributes(
+                tool.getId(),
+                tool.getOwner().getId(),
+                tool.getOwner().getLatitude(),
+                tool.getOwner().getLongitude(),
+                tool.getCategory(),
+                tool.getCondition(),
+                tool.getRateType(),
+                tool.getRentalFee()
+        );
+        boolean available = Boolean.TRUE.equals(tool.getIsAvailable());
+
+        AfterCommit.run(() -> write(() -> {
+            remove(attributes.toolId());
+            if (available) {
+                put(attributes);
+            }
+        }));
+    }
+
+    public void onToolDeleted(Long toolId) {
+        AfterCommit.run(() -> write(() -> remove(toolId)));
+    }
+
+    public void onOwnerMoved(Long ownerId, double latitude, double longitude) {
+        AfterCommit.run(() -> write(() -> {
+            for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+                if (ownerIds[slot] == ownerId) {
+                    latitudes[slot] = latitude;
+                    longitudes[slot] = longitude;
+                }
+            }
+        }));
+    }
+
+    // ========== INTERNALS (callers hold the lock) ==========
+
+    private static boolean and(BitSet matches, Map<String, BitSet> bitmaps, String value) {
+        if (value == null) {
+            return true;
+        }
+        BitSet bitmap = bitmaps.get(value);
+        if (bitmap == null) {
+            return false;
+        }
+        matches.and(bitmap);
+        return true;
+    }
+
+    private void put(ToolAttributes tool) {
+        if (tool.latitude() == null || tool.longitude() == null) {
+            return;
+        }
+        int slot = freeSlots.isEmpty() ? nextSlot() : freeSlots.pop();
+        double fee = tool.rentalFee() != null ? tool.rentalFee() : 0.0;
+
+        toolIds[slot] = tool.toolId();
+        ownerIds[slot] = tool.ownerId();
+        latitudes[slot] = tool.latitude();
+        longitudes[slot] = tool.longitude();
+        fees[slot] = fee;
+        categories[slot] = tool.category();
+        conditions[slot] = tool.condition();
+        rateTypes[slot] = tool.rateType();
+
+        slotByTool.put(tool.toolId(), slot);
+        live.set(slot);
+        bitmap(byCategory, tool.category()).set(slot);
+        bitmap(byCondition, tool.condition()).set(slot);
+        bitmap(byRateType, tool.rateType()).set(slot);
+        byFeeBucket[feeBucket(fee)].set(slot);
+    }
+
+    private void remove(Long toolId) {
+        Integer slot = slotByTool.remove(toolId);
+        if (slot == null) {
+            return;
+        }
+        live.clear(slot);
+        bitmap(byCategory, categories[slot]).clear(slot);
+        bitmap(byCondition, conditions[slot]).clear(slot);
+        bitmap(byRateType, rateTypes[slot]).clear(slot);
+        byFeeBucket[feeBucket(fees[slot])].clear(slot);
+        categories[slot] = null;
+        conditions[slot] = null;
+        rateTypes[slot] = null;
+        freeSlots.push(slot);
+    }
+
+    private int nextSlot() {
+        if (slotCount == toolIds.length) {
+            int capacity = toolIds.length * 2;
+            toolIds = Arrays.copyOf(toolIds, capacity);
+            ownerIds = Arrays.copyOf(ownerIds, capacity);
+            latitudes = Arrays.copyOf(latitudes, capacity);
+            longitudes = Arrays.copyOf(longitudes, capacity);
+            fees = Arrays.copyOf(fees, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+            conditions = Arrays.copyOf(conditions, capacity);
+            rateTypes = Arrays.copyOf(rateTypes, capacity);
+        }
+        return slotCount++;
+    }
+
+    private static BitSet bitmap(Map<String, BitSet> bitmaps, String value) {
+        return bitmaps.computeIfAbsent(value != null ? value : "", key -> new BitSet());
+    }
+
+    private static int feeBucket(double fee) {
+        for (int i = 0; i < FEE_BUCKET_BOUNDS.length; i++) {
+            if (fee <= FEE_BUCKET_BOUNDS[i]) {
+                return i;
+            }
+        }
+        return FEE_BUCKET_BOUNDS.length;
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
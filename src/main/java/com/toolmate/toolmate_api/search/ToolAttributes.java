@@ -0,0 +1,8 @@
+package com.toolmate.toolmate_api.search;
+
+/**
+ * Filterable attributes of an available tool together with its owner's position.
+ */
+public record ToolAttributes(Long toolId, Long ownerId, Double latitude, Double longitude,
+                             String category, String condition, String rateType, Double rentalFee) {
+}
@@ -0,0 +1,290 @@
+package com.toolmate.toolmate_api.search;
+
+import com.toolmate.toolmate_api.entity.Tool;
+import com.toolmate.toolmate_api.repository.ToolRepository;
+import com.toolmate.toolmate_api.support.AfterCommit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed prefix trie (radix tree) of tool names and categories for typeahead.
+ * Every suggestion is weighted by how often its tools were borrowed, and every
+ * node remembers the heaviest suggestion below it, so the top suggestions for a
+ * prefix are found best-first without walking the whole subtree.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ToolAutocompleteIndex {
+
+    // Keeps a tool name and a category with the same spelling apart while sharing their prefix path
+    private static final char TYPE_SEPARATOR = '\u0000';
+
+    private final ToolRepository toolRepository;
+
+    private final Node root = new Node("");
+    private final Map<Long, ToolName> indexedTools = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public enum SuggestionType {
+        NAME, CATEGORY
+    }
+
+    public record Suggestion(String text, SuggestionType type, long weight) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ToolName> tools = toolRepository.findAllToolNames();
+
+        lock.writeLock().lock();
+        try {
+            root.children.clear();
+            root.terminal = null;
+            root.best = 0;
+            indexedTools.clear();
+            tools.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Tool autocomplete index built with {} tools", tools.size());
+    }
+
+    /**
+     * Heaviest suggestions starting with the prefix, heaviest first
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        List<Suggestion> suggestions = new ArrayList<>(limit);
+        if (key.isEmpty()) {
+            return suggestions;
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = find(key);
+            if (node == null) {
+                return suggestions;
+            }
+
+            PriorityQueue<Candidate> queue = new PriorityQueue<>((a, b) -> Long.compare(b.weight, a.weight));
+            queue.add(new Candidate(node.best, node, null));
+            while (!queue.isEmpty() && suggestions.size() < limit) {
+                Candidate candidate = queue.poll();
+                if (candidate.terminal != null) {
+                    Terminal terminal = candidate.terminal;
+                    suggestions.add(new Suggestion(terminal.text, terminal.type, terminal.weight));
+                    continue;
+                }
+                Node current = candidate.node;
+                if (current.terminal != null) {
+                    queue.add(new Candidate(current.terminal.weight, null, current.terminal));
+                }
+                for (Node child : current.children.values()) {
+                    queue.add(new Candidate(child.best, child, null));
+                }
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== MAINTENANCE (applied after the surrounding transaction commits) ==========
+
+    /**
+     * Re-weight a tool after it was created, renamed or borrowed
+     */
+    public void onToolSaved(Tool tool) {
+        ToolName name = new ToolName(tool.getId(), tool.getName(), tool.getCategory(), tool.getTotalBorrows());
+        AfterCommit.run(() -> write(() -> {
+            remove(name.toolId());
+            add(name);
+        }));
+    }
+
+    public void onToolDeleted(Long toolId) {
+        AfterCommit.run(() -> write(() -> remove(toolId)));
+    }
+
+    // ========== INTERNALS (callers hold the lock) ==========
+
+    private void add(ToolName tool) {
+        long weight = weight(tool);
+        adjust(tool.name(), SuggestionType.NAME, weight);
+        adjust(tool.category(), SuggestionType.CATEGORY, weight);
+        indexedTools.put(tool.toolId(), tool);
+    }
+
+    private void remove(Long toolId) {
+        ToolName tool = indexedTools.remove(toolId);
+        if (tool == null) {
+            return;
+        }
+        long weight = weight(tool);
+        adjust(tool.name(), SuggestionType.NAME, -weight);
+        adjust(tool.category(), SuggestionType.CATEGORY, -weight);
+    }
+
+    private void adjust(String text, SuggestionType type, long delta) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        String key = normalized + TYPE_SEPARATOR + type.ordinal();
+        adjust(root, key, 0, text.trim(), type, delta);
+    }
+
+    private void adjust(Node node, String key, int offset, String text, SuggestionType type, long delta) {
+        if (offset == key.length()) {
+            if (node.terminal == null) {
+                if (delta <= 0) {
+                    return;
+                }
+                node.terminal = new Terminal(text, type);
+            }
+            node.terminal.weight += delta;
+            if (node.terminal.weight <= 0) {
+                node.terminal = null;
+            }
+            recompute(node);
+            return;
+        }
+
+        char first = key.charAt(offset);
+        Node child = node.children.get(first);
+        if (child == null) {
+            if (delta <= 0) {
+                return;
+            }
+            child = new Node(key.substring(offset));
+            child.terminal = new Terminal(text, type);
+            child.terminal.weight = delta;
+            child.best = delta;
+            node.children.put(first, child);
+            recompute(node);
+            return;
+        }
+
+        int common = commonPrefixLength(child.label, key, offset);
+        if (common < child.label.length()) {
+            if (delta <= 0) {
+                return;
+            }
+            // Split the edge where the new key diverges
+            Node split = new Node(child.label.substring(0, common));
+            child.label = child.label.substring(common);
+            split.children.put(child.label.charAt(0), child);
+            split.best = child.best;
+            node.children.put(first, split);
+            child = split;
+        }
+
+        adjust(child, key, offset + common, text, type, delta);
+
+        // Drop empty nodes and merge single-child chains to keep the trie compressed
+        if (child.terminal == null && child.children.isEmpty()) {
+            node.children.remove(first);
+        } else if (child.terminal == null && child.children.size() == 1) {
+            Node grandchild = child.children.values().iterator().next();
+            grandchild.label = child.label + grandchild.label;
+            node.children.put(first, grandchild);
+        }
+        recompute(node);
+    }
+
+    private Node find(String prefix) {
+        Node node = root;
+        int offset = 0;
+        while (offset < prefix.length()) {
+            Node child = node.children.get(prefix.charAt(offset));
+            if (child == null) {
+                return null;
+            }
+            int common = commonPrefixLength(child.label, prefix, offset);
+            if (offset + common == prefix.length()) {
+                return child; // prefix ends on or inside this edge
+            }
+            if (common < child.label.length()) {
+                return null;
+            }
+            node = child;
+            offset += common;
+        }
+        return node;
+    }
+
+    private static void recompute(Node node) {
+        long best = node.terminal != null ? node.terminal.weight : 0;
+        for (Node child : node.children.values()) {
+            best = Math.max(best, child.best);
+        }
+        node.best = best;
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static long weight(ToolName tool) {
+        return 1L + (tool.totalBorrows() != null ? tool.totalBorrows() : 0);
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static final class Node {
+        String label;
+        final Map<Character, Node> children = new HashMap<>(4);
+        Terminal terminal;
+        long best;
+
+        Node(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final class Terminal {
+        final String text;
+        final SuggestionType type;
+        long weight;
+
+        Terminal(String text, SuggestionType type) {
+            this.text = text;
+            this.type = type;
+        }
+    }
+
+    private record Candidate(long weight, Node node, Terminal terminal) {
+    }
+}
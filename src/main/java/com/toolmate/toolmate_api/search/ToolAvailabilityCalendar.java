@@ -0,0 +1,203 @@
+package com.toolmate.toolmate_api.search;
+
+import com.toolmate.toolmate_api.entity.BorrowRequest;
+import com.toolmate.toolmate_api.entity.BorrowRequestStatus;
+import com.toolmate.toolmate_api.repository.BorrowRequestRepository;
+import com.toolmate.toolmate_api.support.AfterCommit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * In-memory booking calendar per tool.
+ * Each tool keeps its accepted loans in a TreeMap keyed by start date; since
+ * bookings of one tool never overlap, the booking starting last before a range
+ * ends is the only one that can collide with it, so "is this tool free" is a
+ * single floor lookup and free windows are one walk over the range.
+ * Ranges are half-open: a loan ending at 10:00 does not block one starting at 10:00.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ToolAvailabilityCalendar {
+
+    /**
+     * Statuses during which a borrow request holds its dates
+     */
+    public static final Set<BorrowRequestStatus> ACTIVE_STATUSES = Set.of(
+            BorrowRequestStatus.ACCEPTED,
+            BorrowRequestStatus.COLLECTED,
+            BorrowRequestStatus.RETURNED
+    );
+
+    // The same statuses as stored in the status column, for native queries
+    public static final List<String> ACTIVE_STATUS_NAMES = ACTIVE_STATUSES.stream()
+            .map(Enum::name)
+            .toList();
+
+    private final BorrowRequestRepository borrowRequestRepository;
+
+    private final Map<Long, TreeMap<LocalDateTime, ToolBooking>> bookingsByTool = new HashMap<>();
+    private final Map<Long, ToolBooking> bookingsByRequest = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public record Window(LocalDateTime start, LocalDateTime end) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ToolBooking> bookings = borrowRequestRepository.findBookingsByStatusIn(ACTIVE_STATUSES);
+
+        lock.writeLock().lock();
+        try {
+            bookingsByTool.clear();
+            bookingsByRequest.clear();
+            bookings.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Tool availability calendar built with {} bookings on {} tools",
+                bookings.size(), bookingsByTool.size());
+    }
+
+    /**
+     * Whether no active booking of the tool overlaps [start, end)
+     */
+    public boolean isFree(Long toolId, LocalDateTime start, LocalDateTime end) {
+        lock.readLock().lock();
+        try {
+            return isFreeLocked(toolId, start, end);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tool id filter for searches restricted to a date range, or null when no range was requested
+     */
+    public LongPredicate freeBetween(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null) {
+            return null;
+        }
+        return toolId -> isFree(toolId, start, end);
+    }
+
+    /**
+     * Gaps between the tool's bookings inside [from, to), earliest first
+     */
+    public List<Window> freeWindows(Long toolId, LocalDateTime from, LocalDateTime to) {
+        List<Window> windows = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            TreeMap<LocalDateTime, ToolBooking> bookings = bookingsByTool.get(toolId);
+            LocalDateTime cursor = from;
+            if (bookings != null) {
+                // A booking that started before the range may still cover its beginning
+                LocalDateTime first = bookings.floorKey(from);
+                Map<LocalDateTime, ToolBooking> overlapping = first != null
+                        ? bookings.subMap(first, true, to, false)
+                        : bookings.headMap(to, false);
+
+                for (ToolBooking booking : overlapping.values()) {
+                    if (booking.startDate().isAfter(cursor)) {
+                        windows.add(new Window(cursor, booking.startDate()));
+                    }
+                    if (booking.endDate().isAfter(cursor)) {
+                        cursor = booking.endDate();
+                    }
+                }
+            }
+            if (cursor.isBefore(to)) {
+                windows.add(new Window(cursor, to));
+            }
+            return windows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== MAINTENANCE (applied after the surrounding transaction commits) ==========
+
+    /**
+     * The request now holds its dates (it was accepted)
+     */
+    public void onBooked(BorrowRequest borrowRequest) {
+        ToolBooking booking = new ToolBooking(
+                borrowRequest.getId(),
+                borrowRequest.getTool().getId(),
+                borrowRequest.getStartDate(),
+                borrowRequest.getEndDate()
+        );
+        AfterCommit.run(() -> write(() -> {
+            remove(booking.requestId());
+            put(booking);
+        }));
+    }
+
+    /**
+     * The request no longer holds its dates (completed or cancelled)
+     */
+    public void onReleased(Long requestId) {
+        AfterCommit.run(() -> write(() -> remove(requestId)));
+    }
+
+    public void onToolDeleted(Long toolId) {
+        AfterCommit.run(() -> write(() -> {
+            TreeMap<LocalDateTime, ToolBooking> bookings = bookingsByTool.remove(toolId);
+            if (bookings != null) {
+                bookings.values().forEach(booking -> bookingsByRequest.remove(booking.requestId()));
+            }
+        }));
+    }
+
+    // ========== INTERNALS (callers hold the lock) ==========
+
+    private boolean isFreeLocked(Long toolId, LocalDateTime start, LocalDateTime end) {
+        TreeMap<LocalDateTime, ToolBooking> bookings = bookingsByTool.get(toolId);
+        if (bookings == null) {
+            return true;
+        }
+        Map.Entry<LocalDateTime, ToolBooking> latest = bookings.lowerEntry(end);
+        return latest == null || !latest.getValue().endDate().isAfter(start);
+    }
+
+    private void put(ToolBooking booking) {
+        bookingsByTool.computeIfAbsent(booking.toolId(), key -> new TreeMap<>())
+                .put(booking.startDate(), booking);
+        bookingsByRequest.put(booking.requestId(), booking);
+    }
+
+    private void remove(Long requestId) {
+        ToolBooking booking = bookingsByRequest.remove(requestId);
+        if (booking == null) {
+            return;
+        }
+        TreeMap<LocalDateTime, ToolBooking> bookings = bookingsByTool.get(booking.toolId());
+        if (bookings != null && bookings.remove(booking.startDate(), booking) && bookings.isEmpty()) {
+            bookingsByTool.remove(booking.toolId());
+        }
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
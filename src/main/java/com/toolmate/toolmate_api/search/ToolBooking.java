@@ -0,0 +1,9 @@
+package com.toolmate.toolmate_api.search;
+
+import java.time.LocalDateTime;
+
+/**
+ * Date range a tool is committed to by an accepted, not yet completed borrow request.
+ */
+public record ToolBooking(Long requestId, Long toolId, LocalDateTime startDate, LocalDateTime endDate) {
+}
@@ -0,0 +1,11 @@
+package com.toolmate.toolmate_api.search;
+
+/**
+ * Optional attribute filters for the nearby tools listing; null means "any".
+ */
+public record ToolFilter(String category, String condition, String rateType, Double minFee, Double maxFee) {
+
+    public boolean isEmpty() {
+        return category == null && condition == null && rateType == null && minFee == null && maxFee == null;
+    }
+}
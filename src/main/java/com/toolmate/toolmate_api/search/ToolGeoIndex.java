@@ -0,0 +1,288 @@
+package com.toolmate.toolmate_api.search;
+
+import com.toolmate.toolmate_api.entity.Tool;
+import com.toolmate.toolmate_api.repository.ToolRepository;
+import com.toolmate.toolmate_api.support.AfterCommit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * In-memory grid index of available tools keyed by their owner's location.
+ * The globe is split into fixed-size lat/lon cells so a radius query only
+ * visits the cells overlapping the search circle instead of the whole catalog.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ToolGeoIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE = EARTH_RADIUS_KM * Math.PI / 180.0;
+
+    // 0.05° is ~5.5 km of latitude, roughly one neighbourhood per cell
+    private static final double CELL_SIZE_DEGREES = 0.05;
+    private static final int ROWS = (int) Math.ceil(180.0 / CELL_SIZE_DEGREES);
+    private static final int COLUMNS = (int) Math.ceil(360.0 / CELL_SIZE_DEGREES);
+
+    private final ToolRepository toolRepository;
+
+    private final Map<Long, ToolLocation> locations = new HashMap<>();
+    private final Map<Long, Set<Long>> cells = new HashMap<>();
+    private final Map<Long, Set<Long>> toolsByOwner = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready = false;
+
+    public record Hit(Long toolId, double distance) {
+    }
+
+    public static final Comparator<Hit> NEAREST_FIRST =
+            Comparator.comparingDouble(Hit::distance).thenComparing(Hit::toolId);
+
+    /**
+     * Load every available tool once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ToolLocation> available = toolRepository.findAvailableToolLocations();
+
+        lock.writeLock().lock();
+        try {
+            locations.clear();
+            cells.clear();
+            toolsByOwner.clear();
+            available.forEach(this::put);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Tool geo index built with {} tools in {} cells", available.size(), cells.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Find the nearest available tools after the given cursor hit (exclusive), up to limit.
+     * Keeps a bounded max-heap of the best candidates instead of sorting every match.
+     * The optional accept test (e.g. free on the requested dates) only runs for tools that would make the page.
+     */
+    public List<Hit> findNearest(double latitude, double longitude, Double maxDistance,
+                                 Long excludeOwnerId, int limit, Hit after, LongPredicate accept) {
+        PriorityQueue<Hit> heap = new PriorityQueue<>(limit + 1, NEAREST_FIRST.reversed());
+
+        lock.readLock().lock();
+        try {
+            for (ToolLocation location : candidates(latitude, longitude, maxDistance)) {
+                if (location.ownerId().equals(excludeOwnerId)) {
+                    continue;
+                }
+                double distance = distanceKm(latitude, longitude, location.latitude(), location.longitude());
+                if (maxDistance != null && distance > maxDistance) {
+                    continue;
+                }
+                if (after != null && !isAfter(distance, location.toolId(), after)) {
+                    continue;
+                }
+                boolean full = heap.size() >= limit;
+                if (full && !isAfter(heap.peek().distance(), heap.peek().toolId(), distance, location.toolId())) {
+                    continue;
+                }
+                if (accept != null && !accept.test(location.toolId())) {
+                    continue;
+                }
+                if (full) {
+                    heap.poll();
+                }
+                heap.add(new Hit(location.toolId(), distance));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit> hits = new ArrayList<>(heap);
+        hits.sort(NEAREST_FIRST);
+        return hits;
+    }
+
+    /**
+     * Location of a tool if it is currently indexed as available
+     */
+    public ToolLocation locate(Long toolId) {
+        lock.readLock().lock();
+        try {
+            return locations.get(toolId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== MAINTENANCE (applied after the surrounding transaction commits) ==========
+
+    /**
+     * Re-index a tool after it was saved; unavailable tools are dropped from the index
+     */
+    public void onToolSaved(Tool tool) {
+        ToolLocation location = new ToolLocation(
+                tool.getId(),
+                tool.getOwner().getId(),
+                tool.getOwner().getLatitude(),
+                tool.getOwner().getLongitude()
+        );
+        boolean available = Boolean.TRUE.equals(tool.getIsAvailable());
+
+        AfterCommit.run(() -> write(() -> {
+            remove(location.toolId());
+            if (available) {
+                put(location);
+            }
+        }));
+    }
+
+    public void onToolDeleted(Long toolId) {
+        AfterCommit.run(() -> write(() -> remove(toolId)));
+    }
+
+    /**
+     * Move every tool of an owner whose profile location changed
+     */
+    public void onOwnerMoved(Long ownerId, double latitude, double longitude) {
+        AfterCommit.run(() -> write(() -> {
+            Set<Long> toolIds = toolsByOwner.get(ownerId);
+            if (toolIds == null) {
+                return;
+            }
+            for (Long toolId : new ArrayList<>(toolIds)) {
+                remove(toolId);
+                put(new ToolLocation(toolId, ownerId, latitude, longitude));
+            }
+        }));
+    }
+
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double lat1Rad = Math.toRadians(lat1);
+        double lat2Rad = Math.toRadians(lat2);
+        double deltaLat = Math.toRadians(lat2 - lat1);
+        double deltaLon = Math.toRadians(lon2 - lon1);
+
+        double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2) +
+                Math.cos(lat1Rad) * Math.cos(lat2Rad) *
+                        Math.sin(deltaLon / 2) * Math.sin(deltaLon / 2);
+
+        return EARTH_RADIUS_KM * 2 * Math.asin(Math.sqrt(a));
+    }
+
+    // ========== INTERNALS (callers hold the lock) ==========
+
+    private Iterable<ToolLocation> candidates(double latitude, double longitude, Double maxDistance) {
+        if (maxDistance == null) {
+            return locations.values();
+        }
+
+        double deltaLat = maxDistance / KM_PER_DEGREE;
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        double deltaLon = cosLat > 1e-6 ? deltaLat / cosLat : 360.0;
+
+        int minRow = Math.max(0, row(latitude - deltaLat));
+        int maxRow = Math.min(ROWS - 1, row(latitude + deltaLat));
+        boolean allColumns = deltaLon >= 180.0;
+        int minColumn = allColumns ? 0 : column(longitude - deltaLon);
+        int columnSpan = allColumns ? COLUMNS : column(longitude + deltaLon) - minColumn + 1;
+        if (columnSpan <= 0) {
+            columnSpan += COLUMNS; // search box wraps around the antimeridian
+        }
+
+        // Probing more cells than are occupied is slower than scanning what we have
+        long cellsToVisit = (long) (maxRow - minRow + 1) * columnSpan;
+        if (cellsToVisit >= cells.size()) {
+            return locations.values();
+        }
+
+        List<ToolLocation> result = new ArrayList<>();
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int i = 0; i < columnSpan; i++) {
+                Set<Long> toolIds = cells.get(cellKey(r, (minColumn + i) % COLUMNS));
+                if (toolIds != null) {
+                    toolIds.forEach(toolId -> result.add(locations.get(toolId)));
+                }
+            }
+        }
+        return result;
+    }
+
+    private void put(ToolLocation location) {
+        if (location.latitude() == null || location.longitude() == null) {
+            return;
+        }
+        locations.put(location.toolId(), location);
+        cells.computeIfAbsent(cellKey(location), key -> new HashSet<>()).add(location.toolId());
+        toolsByOwner.computeIfAbsent(location.ownerId(), key -> new HashSet<>()).add(location.toolId());
+    }
+
+    private void remove(Long toolId) {
+        ToolLocation location = locations.remove(toolId);
+        if (location == null) {
+            return;
+        }
+        long key = cellKey(location);
+        Set<Long> cell = cells.get(key);
+        if (cell != null && cell.remove(toolId) && cell.isEmpty()) {
+            cells.remove(key);
+        }
+        Set<Long> owned = toolsByOwner.get(location.ownerId());
+        if (owned != null && owned.remove(toolId) && owned.isEmpty()) {
+            toolsByOwner.remove(location.ownerId());
+        }
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static boolean isAfter(double distance, Long toolId, Hit other) {
+        return isAfter(distance, toolId, other.distance(), other.toolId());
+    }
+
+    private static boolean isAfter(double distance, Long toolId, double otherDistance, Long otherToolId) {
+        int byDistance = Double.compare(distance, otherDistance);
+        return byDistance > 0 || (byDistance == 0 && toolId.compareTo(otherToolId) > 0);
+    }
+
+    private static long cellKey(ToolLocation location) {
+        return cellKey(row(location.latitude()), column(location.longitude()));
+    }
+
+    private static long cellKey(int row, int column) {
+        return (long) row * COLUMNS + column;
+    }
+
+    private static int row(double latitude) {
+        return Math.min(ROWS - 1, (int) Math.floor((latitude + 90.0) / CELL_SIZE_DEGREES));
+    }
+
+    private static int column(double longitude) {
+        double normalized = ((longitude + 180.0) % 360.0 + 360.0) % 360.0;
+        return Math.min(COLUMNS - 1, (int) Math.floor(normalized / CELL_SIZE_DEGREES));
+    }
+}
@@ -0,0 +1,65 @@
+package com.toolmate.toolmate_api.search;
+
+import com.toolmate.toolmate_api.entity.Tool;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single entry point for keeping every in-memory tool index in step with writes.
+ * Services report what changed; each index applies it after the transaction commits.
+ */
+@Component
+@RequiredArgsConstructor
+public class ToolIndexer {
+
+    private final ToolGeoIndex toolGeoIndex;
+    private final ToolAttributeIndex toolAttributeIndex;
+    private final ToolTextIndex toolTextIndex;
+    private final ToolAutocompleteIndex toolAutocompleteIndex;
+    private final ToolTrigramIndex toolTrigramIndex;
+    private final ToolAvailabilityCalendar toolAvailabilityCalendar;
+
+    /**
+     * A tool was created or its listing details changed
+     */
+    public void onToolSaved(Tool tool) {
+        toolGeoIndex.onToolSaved(tool);
+        toolAttributeIndex.onToolSaved(tool);
+        toolTextIndex.onToolSaved(tool);
+        toolAutocompleteIndex.onToolSaved(tool);
+        toolTrigramIndex.onToolSaved(tool);
+    }
+
+    /**
+     * A borrow lifecycle step flipped the tool's availability
+     */
+    public void onAvailabilityChanged(Tool tool) {
+        toolGeoIndex.onToolSaved(tool);
+        toolAttributeIndex.onToolSaved(tool);
+    }
+
+    /**
+     * A loan completed, so the tool's borrow count (and suggestion weight) grew
+     */
+    public void onToolBorrowed(Tool tool) {
+        onAvailabilityChanged(tool);
+        toolAutocompleteIndex.onToolSaved(tool);
+    }
+
+    public void onToolDeleted(Long toolId) {
+        toolGeoIndex.onToolDeleted(toolId);
+        toolAttributeIndex.onToolDeleted(toolId);
+        toolTextIndex.onToolDeleted(toolId);
+        toolAutocompleteIndex.onToolDeleted(toolId);
+        toolTrigramIndex.onToolDeleted(toolId);
+        toolAvailabilityCalendar.onToolDeleted(toolId);
+    }
+
+    /**
+     * Tools are located at their owner's address
+     */
+    public void onOwnerMoved(Long ownerId, double latitude, double longitude) {
+        toolGeoIndex.onOwnerMoved(ownerId, latitude, longitude);
+        toolAttributeIndex.onOwnerMoved(ownerId, latitude, longitude);
+    }
+}
@@ -0,0 +1,7 @@
+package com.toolmate.toolmate_api.search;
+
+/**
+ * Position of an available tool, taken from its owner's coordinates.
+ */
+public record ToolLocation(Long toolId, Long ownerId, Double latitude, Double longitude) {
+}
@@ -0,0 +1,7 @@
+package com.toolmate.toolmate_api.search;
+
+/**
+ * Name, category and popularity of a tool, used to build autocomplete suggestions.
+ */
+public record ToolName(Long toolId, String name, String category, Integer totalBorrows) {
+}
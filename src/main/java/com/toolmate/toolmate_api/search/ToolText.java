@@ -0,0 +1,7 @@
+package com.toolmate.toolmate_api.search;
+
+/**
+ * Searchable text fields of a tool.
+ */
+public record ToolText(Long toolId, String name, String description, String category) {
+}
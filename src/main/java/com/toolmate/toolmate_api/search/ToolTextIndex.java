@@ -0,0 +1,220 @@
+package com.toolmate.toolmate_api.search;
+
+import com.toolmate.toolmate_api.entity.Tool;
+import com.toolmate.toolmate_api.repository.ToolRepository;
+import com.toolmate.toolmate_api.support.AfterCommit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over tool name, category and description.
+ * Each term maps to the tools containing it with a field-weighted term
+ * frequency; queries score matches with a BM25-style saturation and IDF.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ToolTextIndex {
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float CATEGORY_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final double K1 = 1.2;
+
+    private final ToolRepository toolRepository;
+
+    private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+    private final Map<Long, Set<String>> termsByTool = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public record Match(Long toolId, double score) {
+    }
+
+    /**
+     * Combines the text score of a match with other signals (e.g. distance).
+     * Return Double.NaN to drop the match.
+     */
+    @FunctionalInterface
+    public interface Ranker {
+        double rank(Long toolId, double textScore);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ToolText> tools = toolRepository.findAllToolText();
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            termsByTool.clear();
+            tools.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Tool text index built with {} tools and {} terms", tools.size(), postings.size());
+    }
+
+    /**
+     * Best matches for the query, ranked by the given ranker, highest first.
+     * All query terms must match; if nothing does, any term may match.
+     */
+    public List<Match> search(String query, int limit, Ranker ranker) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(TextAnalyzer.terms(query)));
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Match> matches = collect(queryTerms, true, limit, ranker);
+            if (matches.isEmpty() && queryTerms.size() > 1) {
+                matches = collect(queryTerms, false, limit, ranker);
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== MAINTENANCE (applied after the surrounding transaction commits) ==========
+
+    public void onToolSaved(Tool tool) {
+        ToolText text = new ToolText(tool.getId(), tool.getName(), tool.getDescription(), tool.getCategory());
+        AfterCommit.run(() -> write(() -> {
+            remove(text.toolId());
+            put(text);
+        }));
+    }
+
+    public void onToolDeleted(Long toolId) {
+        AfterCommit.run(() -> write(() -> remove(toolId)));
+    }
+
+    // ========== INTERNALS (callers hold the lock) ==========
+
+    private List<Match> collect(List<String> queryTerms, boolean requireAll, int limit, Ranker ranker) {
+        List<Map<Long, Float>> termPostings = new ArrayList<>();
+        List<Double> idfs = new ArrayList<>();
+        int documentCount = termsByTool.size();
+
+        for (String term : queryTerms) {
+            Map<Long, Float> posting = postings.get(term);
+            if (posting == null) {
+                if (requireAll) {
+                    return List.of();
+                }
+                continue;
+            }
+            termPostings.add(posting);
+            idfs.add(Math.log(1.0 + (documentCount - posting.size() + 0.5) / (posting.size() + 0.5)));
+        }
+        if (termPostings.isEmpty()) {
+            return List.of();
+        }
+
+        // Drive the scan from the rarest term when every term has to match
+        Map<Long, Float> driver = termPostings.get(0);
+        if (requireAll) {
+            for (Map<Long, Float> posting : termPostings) {
+                if (posting.size() < driver.size()) {
+                    driver = posting;
+                }
+            }
+        }
+
+        Comparator<Match> byScore = Comparator.comparingDouble(Match::score);
+        PriorityQueue<Match> heap = new PriorityQueue<>(limit + 1, byScore);
+        Set<Long> seen = requireAll ? null : new HashSet<>();
+
+        for (Map<Long, Float> source : requireAll ? List.of(driver) : termPostings) {
+            for (Long toolId : source.keySet()) {
+                if (seen != null && !seen.add(toolId)) {
+                    continue;
+                }
+
+                double textScore = 0.0;
+                boolean matchesAll = true;
+                for (int i = 0; i < termPostings.size(); i++) {
+                    Float weightedFrequency = termPostings.get(i).get(toolId);
+                    if (weightedFrequency == null) {
+                        matchesAll = false;
+                        continue;
+                    }
+                    textScore += idfs.get(i) * weightedFrequency * (K1 + 1) / (weightedFrequency + K1);
+                }
+                if (requireAll && !matchesAll) {
+                    continue;
+                }
+
+                double score = ranker.rank(toolId, textScore);
+                if (Double.isNaN(score)) {
+                    continue;
+                }
+                if (heap.size() < limit) {
+                    heap.add(new Match(toolId, score));
+                } else if (score > heap.peek().score()) {
+                    heap.poll();
+                    heap.add(new Match(toolId, score));
+                }
+            }
+        }
+
+        List<Match> matches = new ArrayList<>(heap);
+        matches.sort(byScore.reversed());
+        return matches;
+    }
+
+    private void put(ToolText text) {
+        Map<String, Float> frequencies = new HashMap<>();
+        addField(frequencies, text.name(), NAME_WEIGHT);
+        addField(frequencies, text.category(), CATEGORY_WEIGHT);
+        addField(frequencies, text.description(), DESCRIPTION_WEIGHT);
+
+        frequencies.forEach((term, frequency) ->
+                postings.computeIfAbsent(term, key -> new HashMap<>()).put(text.toolId(), frequency));
+        termsByTool.put(text.toolId(), frequencies.keySet());
+    }
+
+    private void remove(Long toolId) {
+        Set<String> terms = termsByTool.remove(toolId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Float> posting = postings.get(term);
+            if (posting != null && posting.remove(toolId) != null && posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private static void addField(Map<String, Float> frequencies, String value, float weight) {
+        for (String term : TextAnalyzer.terms(value)) {
+            frequencies.merge(term, weight, Float::sum);
+        }
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
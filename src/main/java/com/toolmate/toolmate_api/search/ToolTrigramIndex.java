@@ -0,0 +1,156 @@
+package com.toolmate.toolmate_api.search;
+
+import com.toolmate.toolmate_api.entity.Tool;
+import com.toolmate.toolmate_api.repository.ToolRepository;
+import com.toolmate.toolmate_api.support.AfterCommit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over tool names for typo-tolerant lookup.
+ * Names are split into padded three-letter grams the same way pg_trgm does,
+ * and candidates are scored by trigram (Jaccard) similarity, so "hamer"
+ * still finds "Hammer" without scanning every name.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ToolTrigramIndex {
+
+    private final ToolRepository toolRepository;
+
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, Set<String>> trigramsByTool = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public record Match(Long toolId, double similarity) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ToolName> tools = toolRepository.findAllToolNames();
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            trigramsByTool.clear();
+            tools.forEach(tool -> put(tool.toolId(), tool.name()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Tool trigram index built with {} tools and {} trigrams", tools.size(), postings.size());
+    }
+
+    /**
+     * Every tool whose name is at least minSimilarity similar to the query, unordered
+     */
+    public List<Match> search(String query, double minSimilarity) {
+        Set<String> queryTrigrams = trigrams(query);
+        List<Match> matches = new ArrayList<>();
+        if (queryTrigrams.isEmpty()) {
+            return matches;
+        }
+
+        lock.readLock().lock();
+        try {
+            // Count shared trigrams per candidate straight from the postings
+            Map<Long, Integer> shared = new HashMap<>();
+            for (String trigram : queryTrigrams) {
+                Set<Long> toolIds = postings.get(trigram);
+                if (toolIds != null) {
+                    toolIds.forEach(toolId -> shared.merge(toolId, 1, Integer::sum));
+                }
+            }
+
+            shared.forEach((toolId, common) -> {
+                int union = queryTrigrams.size() + trigramsByTool.get(toolId).size() - common;
+                double similarity = (double) common / union;
+                if (similarity >= minSimilarity) {
+                    matches.add(new Match(toolId, similarity));
+                }
+            });
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== MAINTENANCE (applied after the surrounding transaction commits) ==========
+
+    public void onToolSaved(Tool tool) {
+        Long toolId = tool.getId();
+        String name = tool.getName();
+        AfterCommit.run(() -> write(() -> {
+            remove(toolId);
+            put(toolId, name);
+        }));
+    }
+
+    public void onToolDeleted(Long toolId) {
+        AfterCommit.run(() -> write(() -> remove(toolId)));
+    }
+
+    // ========== INTERNALS (callers hold the lock) ==========
+
+    private void put(Long toolId, String name) {
+        Set<String> trigrams = trigrams(name);
+        if (trigrams.isEmpty()) {
+            return;
+        }
+        trigrams.forEach(trigram -> postings.computeIfAbsent(trigram, key -> new HashSet<>()).add(toolId));
+        trigramsByTool.put(toolId, trigrams);
+    }
+
+    private void remove(Long toolId) {
+        Set<String> trigrams = trigramsByTool.remove(toolId);
+        if (trigrams == null) {
+            return;
+        }
+        for (String trigram : trigrams) {
+            Set<Long> toolIds = postings.get(trigram);
+            if (toolIds != null && toolIds.remove(toolId) && toolIds.isEmpty()) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    // Same scheme as pg_trgm: each word padded with two leading spaces and one trailing space
+    private static Set<String> trigrams(String text) {
+        Set<String> trigrams = new HashSet<>();
+        if (text == null) {
+            return trigrams;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.toolmate.toolmate_api.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal built from the JWT claims, so controllers get the caller's id without a lookup.
+ * Its name is the user id, which is also what STOMP user destinations are keyed by.
+ */
+public record AuthenticatedUser(Long id, String email, String role) implements Principal {
+
+    public static final String ROLE_USER = "ROLE_USER";
+
+    @Override
+    public String getName() {
+        return String.valueOf(id);
+    }
+
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority(role));
+    }
+}
@@ -1,73 +1,149 @@
 package com.toolmate.toolmate_api.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
-import java.util.function.Function;
 
+/**
+ * Issues and verifies access tokens.
+ * The signing key and parser are built once; every token is parsed a single time
+ * per verification, and recently verified tokens are remembered until they expire
+ * so repeat requests with the same token skip the HMAC and JSON work entirely.
+ * The cache is keyed by a SHA-256 digest, so live tokens are not kept in the heap.
+ */
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLE_CLAIM = "role";
 
-    @Value("${jwt.expiration}")
-    private Long expiration;
+    private final Long expiration;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final Cache<String, Claims> verifiedTokens;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    public JwtUtil(MeterRegistry meterRegistry,
+                   @Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration}") Long expiration,
+                   @Value("${jwt.verified-cache.max-size:10000}") long verifiedCacheSize,
+                   @Value("${jwt.verified-cache.ttl:1m}") Duration verifiedCacheTtl) {
+        this.expiration = expiration;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(untilTokenExpiry(verifiedCacheTtl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "auth.tokens");
     }
 
-    public String generateToken(UserDetails userDetails) {
+    /**
+     * Short-lived access token; the jti lets it be revoked before it expires
+     */
+    public String generateToken(Long userId, String email, String role, String jti) {
         Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, userDetails.getUsername());
+        claims.put(USER_ID_CLAIM, userId);
+        claims.put(ROLE_CLAIM, role);
+        return createToken(claims, email, jti);
     }
 
-    private String createToken(Map<String, Object> claims, String subject) {
+    public Duration getAccessTokenTtl() {
+        return Duration.ofMillis(expiration);
+    }
+
+    /**
+     * Principal carried by a verified token, or null for tokens issued before ids were embedded
+     */
+    public AuthenticatedUser toAuthenticatedUser(Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        if (userId == null) {
+            return null;
+        }
+        String role = claims.get(ROLE_CLAIM, String.class);
+        return new AuthenticatedUser(userId.longValue(), claims.getSubject(),
+                role != null ? role : AuthenticatedUser.ROLE_USER);
+    }
+
+    private String createToken(Map<String, Object> claims, String subject, String jti) {
         return Jwts.builder()
                 .claims(claims)  // Changed from setClaims()
+                .id(jti)
                 .subject(subject)  // Changed from setSubject()
                 .issuedAt(new Date(System.currentTimeMillis()))  // Changed from setIssuedAt()
                 .expiration(new Date(System.currentTimeMillis() + expiration))  // Changed from setExpiration()
-                .signWith(getSigningKey())  // Simplified - algorithm auto-detected
+                .signWith(signingKey)  // Simplified - algorithm auto-detected
                 .compact();
     }
 
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    /**
+     * Claims of a valid token, served from the verified-token cache when the exact
+     * same token was verified recently. Throws JwtException for invalid or expired tokens.
+     */
+    public Claims verify(String token) {
+        return verifiedTokens.get(hash(token), digest -> extractAllClaims(token));
     }
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    /**
+     * Verify the signature and expiry once and return every claim, bypassing the cache
+     */
+    public Claims extractAllClaims(String token) {
+        return parser.parseSignedClaims(token)  // Changed from parseClaimsJws()
+                .getPayload();  // Changed from getBody()
     }
 
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
+    // A cached verification never outlives the token it vouches for
+    private static Expiry<String, Claims> untilTokenExpiry(Duration ttl) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(String tokenHash, Claims claims, long currentTime) {
+                long ttlNanos = ttl.toNanos();
+                Date expiresAt = claims.getExpiration();
+                if (expiresAt == null) {
+                    return ttlNanos;
+                }
+                long remaining = Duration.ofMillis(expiresAt.getTime() - System.currentTimeMillis()).toNanos();
+                return Math.max(0, Math.min(ttlNanos, remaining));
+            }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()  // Changed from parserBuilder()
-                .verifyWith(getSigningKey())  // Changed from setSigningKey()
-                .build()
-                .parseSignedClaims(token)  // Changed from parseClaimsJws()
-                .getPayload();  // Changed from getBody()
-    }
+            @Override
+            public long expireAfterUpdate(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+                return expireAfterCreate(tokenHash, claims, currentTime);
+            }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+            @Override
+            public long expireAfterRead(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
     }
-}
\ No newline at end of file
+}
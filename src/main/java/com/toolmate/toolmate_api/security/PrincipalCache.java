@@ -0,0 +1,48 @@
+package com.toolmate.toolmate_api.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.toolmate.toolmate_api.support.AfterCommit;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded, expiring cache of authenticated principals keyed by email, so the JWT
+ * filter can authenticate most requests without touching the users table.
+ * Hit/miss/eviction counts are published as the "auth.principals" cache metrics.
+ */
+@Component
+public class PrincipalCache {
+
+    private final Cache<String, UserDetails> cache;
+
+    public PrincipalCache(MeterRegistry meterRegistry,
+                          @Value("${auth.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${auth.principal-cache.ttl:5m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.principals");
+    }
+
+    /**
+     * Cached principal, loading it on a miss. Callers get their own copy because
+     * the authentication manager erases the password of the principal it returns.
+     */
+    public UserDetails get(String email, Function<String, UserDetails> loader) {
+        return User.withUserDetails(cache.get(email, loader)).build();
+    }
+
+    public void evict(String email) {
+        AfterCommit.nowAndAfterCommit(() -> cache.invalidate(email));
+    }
+}
@@ -0,0 +1,155 @@
+package com.toolmate.toolmate_api.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.toolmate.toolmate_api.config.RateLimitProperties;
+import com.toolmate.toolmate_api.exception.ErrorResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token-bucket rate limiting per route, keyed by user id for authenticated
+ * requests and by client IP otherwise. Runs right after JwtAuthenticationFilter
+ * so the user is already known.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    // Replaced in tests to step time deterministically
+    private LongSupplier nanoClock = System::nanoTime;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        List<RateLimitProperties.Rule> rules = properties.getRules();
+        for (int i = 0; i < rules.size(); i++) {
+            RateLimitProperties.Rule rule = rules.get(i);
+            if (!matches(rule, request)) {
+                continue;
+            }
+
+            String key = i + ":" + clientKey(request);
+            Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(rule));
+            long waitNanos = bucket.tryAcquire(nanoClock.getAsLong());
+            if (waitNanos > 0) {
+                reject(response, rule, waitNanos);
+                return;
+            }
+            break;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Drop buckets that have refilled completely and sat unused past the idle timeout
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.sweep-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = nanoClock.getAsLong();
+        long idleNanos = properties.getIdleTimeout().toNanos();
+        buckets.values().removeIf(bucket -> bucket.idleFor(now) > idleNanos);
+    }
+
+    private boolean matches(RateLimitProperties.Rule rule, HttpServletRequest request) {
+        if (!rule.getMethods().isEmpty() && !rule.getMethods().contains(request.getMethod())) {
+            return false;
+        }
+        return pathMatcher.match(rule.getPattern(), request.getRequestURI());
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return "user:" + user.id();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, RateLimitProperties.Rule rule, long waitNanos) throws IOException {
+        meterRegistry.counter("http.rate_limited", "rule", String.valueOf(rule.getName())).increment();
+
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Too many requests, please retry in " + retryAfterSeconds + " seconds",
+                null,
+                LocalDateTime.now()
+        ));
+    }
+
+    /**
+     * Lock-free token bucket kept as a single "theoretical arrival time" (GCRA):
+     * each request pushes it one refill interval forward, and a request is refused
+     * when that would put it more than a full bucket ahead of now.
+     */
+    static final class Bucket {
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final AtomicLong arrival = new AtomicLong(Long.MIN_VALUE);
+
+        Bucket(RateLimitProperties.Rule rule) {
+            this.intervalNanos = Math.max(1, rule.getPeriod().toNanos() / Math.max(1, rule.getRefill()));
+            this.burstNanos = intervalNanos * Math.max(1, rule.getCapacity());
+        }
+
+        /**
+         * 0 when a token was taken, otherwise how long until one is available
+         */
+        long tryAcquire(long now) {
+            while (true) {
+                long current = arrival.get();
+                long next = Math.max(current, now) + intervalNanos;
+                long ahead = next - now;
+                if (ahead > burstNanos) {
+                    return ahead - burstNanos;
+                }
+                if (arrival.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        long idleFor(long now) {
+            long current = arrival.get();
+            return current == Long.MIN_VALUE ? Long.MAX_VALUE : now - current;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.toolmate.toolmate_api.security;
+
+import com.toolmate.toolmate_api.repository.RefreshTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory set of revoked access token ids (jti), checked on every request.
+ * An id only has to be remembered until its token expires, and access tokens
+ * are short-lived, so the set stays small; it is rebuilt from the refresh token
+ * table on startup and trimmed periodically.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RevokedTokenRegistry {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    // jti -> expiry of the revoked token, in epoch millis
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<RefreshTokenRepository.RevokedAccess> entries =
+                refreshTokenRepository.findRevokedAccess(LocalDateTime.now());
+        entries.forEach(entry -> revoke(entry.getJti(), entry.getExpiresAt()));
+        log.info("Revoked token registry built with {} access tokens", entries.size());
+    }
+
+    public boolean isRevoked(String jti) {
+        return revoked.containsKey(jti);
+    }
+
+    public void revoke(String jti, LocalDateTime expiresAt) {
+        revoked.put(jti, expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation-purge-interval-ms:300000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt < now);
+    }
+}
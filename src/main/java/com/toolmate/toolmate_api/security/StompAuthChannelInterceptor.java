@@ -0,0 +1,69 @@
+package com.toolmate.toolmate_api.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authenticates STOMP sessions with the same access token as the REST API, sent
+ * as an "Authorization: Bearer ..." header on the CONNECT frame. The session's
+ * principal is the AuthenticatedUser, whose name is the user id, so
+ * /user/queue/... destinations reach every session of that user.
+ */
+@Component
+@RequiredArgsConstructor
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private final JwtUtil jwtUtil;
+    private final RevokedTokenRegistry revokedTokenRegistry;
+    private final UserDetailsService userDetailsService;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || !StompCommand.CONNECT.equals(accessor.getCommand())) {
+            return message;
+        }
+
+        String authorizationHeader = accessor.getFirstNativeHeader("Authorization");
+        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
+            throw new AccessDeniedException("Missing access token");
+        }
+
+        AuthenticatedUser principal;
+        try {
+            Claims claims = jwtUtil.verify(authorizationHeader.substring(7));
+            if (claims.getId() == null || revokedTokenRegistry.isRevoked(claims.getId())) {
+                throw new AccessDeniedException("Access token revoked");
+            }
+            principal = jwtUtil.toAuthenticatedUser(claims);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new AccessDeniedException("Invalid access token");
+        }
+        if (principal == null || !isActive(principal)) {
+            throw new AccessDeniedException("Invalid access token");
+        }
+
+        accessor.setUser(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        return message;
+    }
+
+    private boolean isActive(AuthenticatedUser principal) {
+        try {
+            return userDetailsService.loadUserByUsername(principal.email()).isEnabled();
+        } catch (UsernameNotFoundException e) {
+            return false;
+        }
+    }
+}
@@ -2,16 +2,14 @@ package com.toolmate.toolmate_api.service;
 
 import com.toolmate.toolmate_api.dto.response.AuthResponse;
 import com.toolmate.toolmate_api.dto.request.LoginRequest;
+import com.toolmate.toolmate_api.dto.request.RefreshTokenRequest;
 import com.toolmate.toolmate_api.dto.request.RegisterRequest;
 import com.toolmate.toolmate_api.dto.response.UserDTO;
 import com.toolmate.toolmate_api.entity.User;
 import com.toolmate.toolmate_api.repository.UserRepository;
-import com.toolmate.toolmate_api.security.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -21,9 +19,8 @@ public class AuthService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final JwtUtil jwtUtil;
+    private final RefreshTokenService refreshTokenService;
     private final AuthenticationManager authenticationManager;
-    private final UserDetailsService userDetailsService;
 
     public AuthResponse register(RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
@@ -41,10 +38,7 @@ public class AuthService {
         user.setAddress(request.getAddress());
 
         User savedUser = userRepository.save(user);
-        UserDetails userDetails = userDetailsService.loadUserByUsername(savedUser.getEmail());
-        String token = jwtUtil.generateToken(userDetails);
-
-        return new AuthResponse(token, convertToDTO(savedUser));
+        return toResponse(refreshTokenService.issue(savedUser));
     }
 
     public AuthResponse login(LoginRequest request) {
@@ -55,10 +49,19 @@ public class AuthService {
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
-        String token = jwtUtil.generateToken(userDetails);
+        return toResponse(refreshTokenService.issue(user));
+    }
+
+    public AuthResponse refresh(RefreshTokenRequest request) {
+        return toResponse(refreshTokenService.rotate(request.getRefreshToken()));
+    }
+
+    public void logout(RefreshTokenRequest request) {
+        refreshTokenService.revokeSession(request.getRefreshToken());
+    }
 
-        return new AuthResponse(token, convertToDTO(user));
+    private AuthResponse toResponse(RefreshTokenService.IssuedTokens tokens) {
+        return new AuthResponse(tokens.accessToken(), tokens.refreshToken(), convertToDTO(tokens.user()));
     }
 
     private UserDTO convertToDTO(User user) {
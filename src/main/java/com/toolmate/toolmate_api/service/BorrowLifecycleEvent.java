@@ -0,0 +1,17 @@
+package com.toolmate.toolmate_api.service;
+
+import com.toolmate.toolmate_api.entity.NotificationType;
+
+import java.time.Instant;
+
+/**
+ * Published by BorrowRequestService whenever a borrow request is created or
+ * changes status. Recorded in the outbox inside the publishing transaction and
+ * dispatched once that transaction has committed.
+ */
+public record BorrowLifecycleEvent(NotificationType type, Long borrowRequestId, Long actorId, Instant occurredAt) {
+
+    public static BorrowLifecycleEvent of(NotificationType type, Long borrowRequestId, Long actorId) {
+        return new BorrowLifecycleEvent(type, borrowRequestId, actorId, Instant.now());
+    }
+}
@@ -8,12 +8,16 @@ import com.toolmate.toolmate_api.dto.response.ToolResponse;
 import com.toolmate.toolmate_api.dto.response.UserDTO;
 import com.toolmate.toolmate_api.entity.*;
 import com.toolmate.toolmate_api.repository.*;
+import com.toolmate.toolmate_api.search.ToolAvailabilityCalendar;
+import com.toolmate.toolmate_api.search.ToolIndexer;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,27 +27,29 @@ public class BorrowRequestService {
     private final BorrowRequestRepository borrowRequestRepository;
     private final ToolRepository toolRepository;
     private final UserRepository userRepository;
+    private final UserProfileCache userProfileCache;
     private final StatusHistoryRepository statusHistoryRepository;
-    private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ToolIndexer toolIndexer;
+    private final ToolAvailabilityCalendar toolAvailabilityCalendar;
+    private final OptimisticRetry optimisticRetry;
 
 
     // Create new borrow request (Status: PENDING)
     @Transactional
-    public BorrowRequestResponse createBorrowRequest(BorrowRequestRequest request, String userEmail) {
-        User borrower = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    public BorrowRequestResponse createBorrowRequest(BorrowRequestRequest request, Long userId) {
+        User borrower = userRepository.getReferenceById(userId);
 
         Tool tool = toolRepository.findById(request.getToolId())
                 .orElseThrow(() -> new IllegalArgumentException("Tool not found"));
 
-        if (!tool.getIsAvailable()) {
-            throw new IllegalArgumentException("Tool is not available");
-        }
-
         if (tool.getOwner().getId().equals(borrower.getId())) {
             throw new IllegalArgumentException("You cannot borrow your own tool");
         }
 
+        // A tool currently lent out can still be requested for later dates
+        assertNotBooked(tool, null, request.getStartDate(), request.getEndDate());
+
         BorrowRequest borrowRequest = new BorrowRequest();
         borrowRequest.setTool(tool);
         borrowRequest.setBorrower(borrower);
@@ -58,278 +64,141 @@ public class BorrowRequestService {
         createStatusHistory(savedRequest, BorrowRequestStatus.PENDING, borrower, "Request created");
 
         // ✅ SEND NOTIFICATION
-        notificationService.notifyRequestReceived(
-                tool.getOwner(),
-                borrower.getFullName(),
-                tool.getName(),
-                savedRequest.getId()
-        );
+        eventPublisher.publishEvent(BorrowLifecycleEvent.of(
+                NotificationType.REQUEST_RECEIVED, savedRequest.getId(), borrower.getId()));
 
         return convertToResponse(savedRequest);
     }
 
 
     // Owner accepts request (Status: PENDING → ACCEPTED)
-    @Transactional
-    public BorrowRequestResponse acceptRequest(Long requestId, String userEmail) {
-        User owner = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
-        BorrowRequest borrowRequest = borrowRequestRepository.findById(requestId)
-                .orElseThrow(() -> new IllegalArgumentException("Borrow request not found"));
-
-        // Validate owner
-        if (!borrowRequest.getTool().getOwner().getId().equals(owner.getId())) {
-            throw new IllegalArgumentException("Only the tool owner can accept this request");
-        }
-
-        // Validate current status
-        if (borrowRequest.getStatus() != BorrowRequestStatus.PENDING) {
-            throw new IllegalArgumentException("Can only accept pending requests");
-        }
-
-        // Update status
-        borrowRequest.setStatus(BorrowRequestStatus.ACCEPTED);
-        borrowRequest.getTool().setIsAvailable(false);
-        toolRepository.save(borrowRequest.getTool());
-
-        BorrowRequest updated = borrowRequestRepository.save(borrowRequest);
-
-        // Create status history
-        createStatusHistory(updated, BorrowRequestStatus.ACCEPTED, owner, "Request accepted by owner");
-
-        // ✅ SEND NOTIFICATION
-        notificationService.notifyRequestAccepted(
-                borrowRequest.getBorrower(),
-                borrowRequest.getTool().getName(),
-                owner.getFullName(),
-                owner.getPhoneNumber(),
-                borrowRequest.getId()
-        );
-
-        return convertToResponse(updated);
+    public BorrowRequestResponse acceptRequest(Long requestId, Long userId) {
+        return transition(requestId, userId, BorrowTransition.ACCEPT, null);
     }
 
 
     // Owner rejects request (Status: PENDING → REJECTED)
-    @Transactional
-    public BorrowRequestResponse rejectRequest(Long requestId, String userEmail, String reason) {
-        User owner = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
-        BorrowRequest borrowRequest = borrowRequestRepository.findById(requestId)
-                .orElseThrow(() -> new IllegalArgumentException("Borrow request not found"));
-
-        if (!borrowRequest.getTool().getOwner().getId().equals(owner.getId())) {
-            throw new IllegalArgumentException("Only the tool owner can reject this request");
-        }
-
-        if (borrowRequest.getStatus() != BorrowRequestStatus.PENDING) {
-            throw new IllegalArgumentException("Can only reject pending requests");
-        }
-
-        borrowRequest.setStatus(BorrowRequestStatus.REJECTED);
-        BorrowRequest updated = borrowRequestRepository.save(borrowRequest);
-
-        createStatusHistory(updated, BorrowRequestStatus.REJECTED, owner, reason);
-
-        // ✅ SEND NOTIFICATION
-        notificationService.notifyRequestRejected(
-                borrowRequest.getBorrower(),
-                borrowRequest.getTool().getName(),
-                owner.getFullName(),
-                borrowRequest.getId()
-        );
-
-        return convertToResponse(updated);
+    public BorrowRequestResponse rejectRequest(Long requestId, Long userId, String reason) {
+        return transition(requestId, userId, BorrowTransition.REJECT, reason);
     }
 
 
     // Borrower confirms pickup (Status: ACCEPTED → COLLECTED)
-    @Transactional
-    public BorrowRequestResponse confirmCollected(Long requestId, String userEmail) {
-        User borrower = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
-        BorrowRequest borrowRequest = borrowRequestRepository.findById(requestId)
-                .orElseThrow(() -> new IllegalArgumentException("Borrow request not found"));
-
-        if (!borrowRequest.getBorrower().getId().equals(borrower.getId())) {
-            throw new IllegalArgumentException("Only the borrower can confirm collection");
-        }
-
-        if (borrowRequest.getStatus() != BorrowRequestStatus.ACCEPTED) {
-            throw new IllegalArgumentException("Can only collect accepted requests");
-        }
-
-        borrowRequest.setStatus(BorrowRequestStatus.COLLECTED);
-        borrowRequest.setCollectedAt(LocalDateTime.now());
-        BorrowRequest updated = borrowRequestRepository.save(borrowRequest);
-
-        createStatusHistory(updated, BorrowRequestStatus.COLLECTED, borrower, "Tool collected by borrower");
-
-        // ✅ SEND NOTIFICATION
-        notificationService.notifyToolCollected(
-                borrowRequest.getTool().getOwner(),
-                borrower.getFullName(),
-                borrowRequest.getTool().getName(),
-                borrowRequest.getId()
-        );
-
-        return convertToResponse(updated);
+    public BorrowRequestResponse confirmCollected(Long requestId, Long userId) {
+        return transition(requestId, userId, BorrowTransition.COLLECT, null);
     }
 
 
     // Borrower confirms return (Status: COLLECTED → RETURNED)
-    @Transactional
-    public BorrowRequestResponse confirmReturned(Long requestId, String userEmail) {
-        User borrower = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
-        BorrowRequest borrowRequest = borrowRequestRepository.findById(requestId)
-                .orElseThrow(() -> new IllegalArgumentException("Borrow request not found"));
-
-        if (!borrowRequest.getBorrower().getId().equals(borrower.getId())) {
-            throw new IllegalArgumentException("Only the borrower can confirm return");
-        }
-
-        if (borrowRequest.getStatus() != BorrowRequestStatus.COLLECTED) {
-            throw new IllegalArgumentException("Can only return collected tools");
-        }
-
-        borrowRequest.setStatus(BorrowRequestStatus.RETURNED);
-        borrowRequest.setReturnedAt(LocalDateTime.now());
-        BorrowRequest updated = borrowRequestRepository.save(borrowRequest);
-
-        createStatusHistory(updated, BorrowRequestStatus.RETURNED, borrower, "Tool returned by borrower");
-
-        // ✅ SEND NOTIFICATION
-        notificationService.notifyToolReturned(
-                borrowRequest.getTool().getOwner(),
-                borrower.getFullName(),
-                borrowRequest.getTool().getName(),
-                borrowRequest.getId()
-        );
-
-        return convertToResponse(updated);
+    public BorrowRequestResponse confirmReturned(Long requestId, Long userId) {
+        return transition(requestId, userId, BorrowTransition.RETURN, null);
     }
 
 
     // Owner confirms receipt and completes transaction (Status: RETURNED → COMPLETED)
-    @Transactional
-    public BorrowRequestResponse confirmReceipt(Long requestId, String userEmail) {
-        User owner = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
-        BorrowRequest borrowRequest = borrowRequestRepository.findById(requestId)
-                .orElseThrow(() -> new IllegalArgumentException("Borrow request not found"));
-
-        if (!borrowRequest.getTool().getOwner().getId().equals(owner.getId())) {
-            throw new IllegalArgumentException("Only the tool owner can confirm receipt");
-        }
-
-        if (borrowRequest.getStatus() != BorrowRequestStatus.RETURNED) {
-            throw new IllegalArgumentException("Can only confirm receipt of returned tools");
-        }
-
-        borrowRequest.setStatus(BorrowRequestStatus.COMPLETED);
-        borrowRequest.setCompletedAt(LocalDateTime.now());
-        borrowRequest.getTool().setIsAvailable(true);
-        borrowRequest.getTool().setTotalBorrows(borrowRequest.getTool().getTotalBorrows() + 1);
-
-        toolRepository.save(borrowRequest.getTool());
-        BorrowRequest updated = borrowRequestRepository.save(borrowRequest);
-
-        createStatusHistory(updated, BorrowRequestStatus.COMPLETED, owner, "Transaction completed");
+    public BorrowRequestResponse confirmReceipt(Long requestId, Long userId) {
+        return transition(requestId, userId, BorrowTransition.COMPLETE, null);
+    }
 
-        // Update user statistics
-        User borrower = borrowRequest.getBorrower();
-        borrower.setTotalBorrows(borrower.getTotalBorrows() + 1);
-        owner.setTotalLends(owner.getTotalLends() + 1);
-        userRepository.save(borrower);
-        userRepository.save(owner);
-
-        // ✅ SEND TRANSACTION COMPLETED NOTIFICATIONS TO BOTH PARTIES
-        notificationService.notifyTransactionCompleted(
-                borrower,
-                owner.getFullName(),
-                borrowRequest.getTool().getName(),
-                borrowRequest.getId()
-        );
 
-        notificationService.notifyTransactionCompleted(
-                owner,
-                borrower.getFullName(),
-                borrowRequest.getTool().getName(),
-                borrowRequest.getId()
-        );
+    // Cancel request (any open status → CANCELLED)
+    public BorrowRequestResponse cancelRequest(Long requestId, Long userId, String reason) {
+        return transition(requestId, userId, BorrowTransition.CANCEL, reason);
+    }
 
-        // ✅ SEND REVIEW REMINDERS TO BOTH PARTIES
-        notificationService.notifyReviewReminder(
-                borrower,
-                owner.getFullName(),
-                borrowRequest.getId()
-        );
 
-        notificationService.notifyReviewReminder(
-                owner,
-                borrower.getFullName(),
-                borrowRequest.getId()
-        );
+    // ========== LIFECYCLE ENGINE (see BorrowTransition) ==========
 
-        return convertToResponse(updated);
+    private BorrowRequestResponse transition(Long requestId, Long userId, BorrowTransition transition, String notes) {
+        return optimisticRetry.execute(() -> apply(requestId, userId, transition, notes));
     }
 
-
-    // Cancel request (Any status except COMPLETED → CANCELLED)
-    @Transactional
-    public BorrowRequestResponse cancelRequest(Long requestId, String userEmail, String reason) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
-        BorrowRequest borrowRequest = borrowRequestRepository.findById(requestId)
+    private BorrowRequestResponse apply(Long requestId, Long userId, BorrowTransition transition, String notes) {
+        // Request, tool, owner and borrower in one query
+        BorrowRequest borrowRequest = borrowRequestRepository.findForTransition(requestId)
                 .orElseThrow(() -> new IllegalArgumentException("Borrow request not found"));
 
-        // Validate user is part of this request
-        if (!borrowRequest.getBorrower().getId().equals(user.getId()) &&
-                !borrowRequest.getTool().getOwner().getId().equals(user.getId())) {
-            throw new IllegalArgumentException("You cannot cancel this request");
+        User actor = transition.actingUser(borrowRequest, userId);
+        if (actor == null) {
+            throw new IllegalArgumentException(transition.getActorError());
         }
-
-        if (borrowRequest.getStatus() == BorrowRequestStatus.COMPLETED) {
-            throw new IllegalArgumentException("Cannot cancel completed transactions");
+        if (!transition.allowedFrom(borrowRequest.getStatus())) {
+            throw new IllegalArgumentException(transition.getStatusError());
         }
 
-        borrowRequest.setStatus(BorrowRequestStatus.CANCELLED);
-
-        // Make tool available again
-        borrowRequest.getTool().setIsAvailable(true);
-        toolRepository.save(borrowRequest.getTool());
+        BorrowRequestStatus previousStatus = borrowRequest.getStatus();
+        borrowRequest.setStatus(transition.getTo());
+        applyEffect(transition.getEffect(), borrowRequest, previousStatus);
 
-        BorrowRequest updated = borrowRequestRepository.save(borrowRequest);
+        createStatusHistory(borrowRequest, transition.getTo(), actor,
+                notes != null ? notes : transition.getDefaultNote());
 
-        createStatusHistory(updated, BorrowRequestStatus.CANCELLED, user, reason);
+        // Every change above goes out in one flush; a lost race fails here, before the event is published
+        borrowRequestRepository.flush();
 
-        // ✅ SEND NOTIFICATION TO OTHER PARTY
-        User otherUser = borrowRequest.getBorrower().getId().equals(user.getId())
-                ? borrowRequest.getTool().getOwner()
-                : borrowRequest.getBorrower();
+        eventPublisher.publishEvent(BorrowLifecycleEvent.of(
+                transition.getNotification(), borrowRequest.getId(), actor.getId()));
 
-        notificationService.notifyRequestCancelled(
-                otherUser,
-                user.getFullName(),
-                borrowRequest.getTool().getName(),
-                borrowRequest.getId()
-        );
-
-        return convertToResponse(updated);
+        return convertToResponse(borrowRequest);
     }
 
+    private void applyEffect(BorrowTransition.Effect effect, BorrowRequest borrowRequest,
+                             BorrowRequestStatus previousStatus) {
+        Tool tool = borrowRequest.getTool();
+        switch (effect) {
+            case NONE -> {
+            }
+            case RESERVE_DATES -> {
+                // Another request may have been accepted for overlapping dates since this one was made.
+                // Bumping the tool's version makes a concurrent accept of an overlapping request fail at commit.
+                // The request itself is already ACCEPTED (and flushed by the query), so it is excluded
+                toolRepository.findForBooking(tool.getId());
+                assertNotBooked(tool, borrowRequest.getId(), borrowRequest.getStartDate(), borrowRequest.getEndDate());
+                // The dates are reserved, the tool stays listed until it is collected
+                toolAvailabilityCalendar.onBooked(borrowRequest);
+            }
+            case HAND_OVER -> {
+                borrowRequest.setCollectedAt(LocalDateTime.now());
+                tool.setIsAvailable(false);
+                toolIndexer.onAvailabilityChanged(tool);
+            }
+            case HAND_BACK -> borrowRequest.setReturnedAt(LocalDateTime.now());
+            case SETTLE -> {
+                borrowRequest.setCompletedAt(LocalDateTime.now());
+                tool.setIsAvailable(true);
+                toolAvailabilityCalendar.onReleased(borrowRequest.getId());
+
+                // Counters are incremented in SQL so concurrent completions stay exact; the loaded
+                // entities only mirror the new values for the response (the columns are not updatable)
+                User borrower = borrowRequest.getBorrower();
+                User owner = tool.getOwner();
+                toolRepository.incrementTotalBorrows(tool.getId());
+                userRepository.incrementTotalBorrows(borrower.getId());
+                userRepository.incrementTotalLends(owner.getId());
+                tool.setTotalBorrows(tool.getTotalBorrows() + 1);
+                borrower.setTotalBorrows(borrower.getTotalBorrows() + 1);
+                owner.setTotalLends(owner.getTotalLends() + 1);
+                toolIndexer.onToolBorrowed(tool);
+                userProfileCache.evict(borrower.getId());
+                userProfileCache.evict(owner.getId());
+            }
+            case RELEASE -> {
+                // Free the reserved dates, and the tool itself if this borrower had it
+                if (ToolAvailabilityCalendar.ACTIVE_STATUSES.contains(previousStatus)) {
+                    toolAvailabilityCalendar.onReleased(borrowRequest.getId());
+                }
+                if (BorrowTransition.TOOL_OUT.contains(previousStatus)) {
+                    tool.setIsAvailable(true);
+                    toolIndexer.onAvailabilityChanged(tool);
+                }
+            }
+        }
+    }
 
     // Get status timeline
-    public List<StatusHistoryDTO> getStatusTimeline(Long requestId, String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    @Transactional(readOnly = true)
+    public List<StatusHistoryDTO> getStatusTimeline(Long requestId, Long userId) {
+        User user = userRepository.getReferenceById(userId);
 
         BorrowRequest borrowRequest = borrowRequestRepository.findById(requestId)
                 .orElseThrow(() -> new IllegalArgumentException("Borrow request not found"));
@@ -353,6 +222,15 @@ public class BorrowRequestService {
     }
 
     // Helper methods
+
+    // Checked against the database so the write path never trusts a stale calendar
+    private void assertNotBooked(Tool tool, Long excludeRequestId, LocalDateTime startDate, LocalDateTime endDate) {
+        if (borrowRequestRepository.existsOverlappingBooking(
+                tool.getId(), excludeRequestId, ToolAvailabilityCalendar.ACTIVE_STATUSES, startDate, endDate)) {
+            throw new IllegalArgumentException("Tool is already booked for the selected dates");
+        }
+    }
+
     private void createStatusHistory(BorrowRequest borrowRequest, BorrowRequestStatus status,
                                      User changedBy, String notes) {
         StatusHistory history = new StatusHistory();
@@ -363,21 +241,66 @@ public class BorrowRequestService {
         statusHistoryRepository.save(history);
     }
 
-    public List<BorrowRequestResponse> getMyBorrowRequests(String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
-        return borrowRequestRepository.findByBorrower(user).stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<BorrowRequestResponse> getMyBorrowRequests(Long userId) {
+        return convertRowsToResponses(borrowRequestRepository.findRowsByBorrowerId(userId));
     }
 
-    public List<BorrowRequestResponse> getRequestsForMyTools(String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    @Transactional(readOnly = true)
+    public List<BorrowRequestResponse> getRequestsForMyTools(Long userId) {
+        return convertRowsToResponses(borrowRequestRepository.findRowsByToolOwnerId(userId));
+    }
 
-        return borrowRequestRepository.findByToolOwner(user).stream()
-                .map(this::convertToResponse)
+    // Listing rows carry every column the response needs; image lists come in one extra query
+    private List<BorrowRequestResponse> convertRowsToResponses(List<BorrowRequestRepository.BorrowRequestRow> rows) {
+        Map<Long, List<String>> imageUrls = toolRepository.findImageUrlsByToolIds(rows.stream()
+                .map(BorrowRequestRepository.BorrowRequestRow::getToolId)
+                .collect(Collectors.toSet()));
+
+        return rows.stream()
+                .map(row -> new BorrowRequestResponse(
+                        row.getId(),
+                        new ToolResponse(
+                                row.getToolId(),
+                                row.getToolName(),
+                                row.getToolDescription(),
+                                row.getToolCategory(),
+                                row.getToolCondition(),
+                                imageUrls.getOrDefault(row.getToolId(), List.of()),
+                                row.getToolIsAvailable(),
+                                row.getToolRentalFee(),
+                                row.getToolRateType(),
+                                row.getToolIsFullyCharged(),
+                                0.0,
+                                row.getToolRating(),
+                                row.getToolTotalBorrows(),
+                                new OwnerDTO(
+                                        row.getOwnerId(),
+                                        row.getOwnerFullName(),
+                                        row.getOwnerRating(),
+                                        row.getOwnerProfileImageUrl()
+                                ),
+                                row.getToolCreatedAt()
+                        ),
+                        new UserDTO(
+                                row.getBorrowerId(),
+                                row.getBorrowerFullName(),
+                                row.getBorrowerEmail(),
+                                row.getBorrowerPhoneNumber(),
+                                row.getBorrowerLatitude(),
+                                row.getBorrowerLongitude(),
+                                row.getBorrowerAddress(),
+                                row.getBorrowerProfileImageUrl(),
+                                row.getBorrowerRating(),
+                                row.getBorrowerTotalBorrows(),
+                                row.getBorrowerTotalLends()
+                        ),
+                        row.getStartDate(),
+                        row.getEndDate(),
+                        row.getStatus().name(),
+                        row.getMessage(),
+                        row.getCreatedAt()
+                ))
                 .collect(Collectors.toList());
     }
 
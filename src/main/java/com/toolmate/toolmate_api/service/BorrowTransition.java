@@ -0,0 +1,113 @@
+package com.toolmate.toolmate_api.service;
+
+import com.toolmate.toolmate_api.entity.BorrowRequest;
+import com.toolmate.toolmate_api.entity.BorrowRequestStatus;
+import com.toolmate.toolmate_api.entity.NotificationType;
+import com.toolmate.toolmate_api.entity.User;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static com.toolmate.toolmate_api.entity.BorrowRequestStatus.*;
+
+/**
+ * The borrow lifecycle as a table: which states each step may start from, where
+ * it leads, who may take it, what else changes and who is told.
+ * BorrowRequestService executes every row the same way, so adding a state or a
+ * step means adding a row here plus, at most, one new effect.
+ */
+public enum BorrowTransition {
+
+    ACCEPT(EnumSet.of(PENDING), ACCEPTED, Actor.OWNER, Effect.RESERVE_DATES,
+            NotificationType.REQUEST_ACCEPTED, "Request accepted by owner",
+            "Only the tool owner can accept this request", "Can only accept pending requests"),
+
+    REJECT(EnumSet.of(PENDING), REJECTED, Actor.OWNER, Effect.NONE,
+            NotificationType.REQUEST_REJECTED, null,
+            "Only the tool owner can reject this request", "Can only reject pending requests"),
+
+    COLLECT(EnumSet.of(ACCEPTED), COLLECTED, Actor.BORROWER, Effect.HAND_OVER,
+            NotificationType.TOOL_COLLECTED, "Tool collected by borrower",
+            "Only the borrower can confirm collection", "Can only collect accepted requests"),
+
+    RETURN(EnumSet.of(COLLECTED), RETURNED, Actor.BORROWER, Effect.HAND_BACK,
+            NotificationType.TOOL_RETURNED, "Tool returned by borrower",
+            "Only the borrower can confirm return", "Can only return collected tools"),
+
+    COMPLETE(EnumSet.of(RETURNED), COMPLETED, Actor.OWNER, Effect.SETTLE,
+            NotificationType.TRANSACTION_COMPLETED, "Transaction completed",
+            "Only the tool owner can confirm receipt", "Can only confirm receipt of returned tools"),
+
+    CANCEL(EnumSet.of(PENDING, ACCEPTED, COLLECTED, RETURNED), CANCELLED, Actor.EITHER, Effect.RELEASE,
+            NotificationType.REQUEST_CANCELLED, null,
+            "You cannot cancel this request", "Can only cancel requests that are still open");
+
+    /**
+     * Who may take a step
+     */
+    public enum Actor {
+        OWNER, BORROWER, EITHER
+    }
+
+    /**
+     * What changes besides the status
+     */
+    public enum Effect {
+        NONE,
+        RESERVE_DATES,  // dates are checked against other bookings and held in the calendar
+        HAND_OVER,      // tool leaves the owner and is delisted
+        HAND_BACK,      // tool is back with the owner, awaiting inspection
+        SETTLE,         // tool relisted, dates released, borrow/lend counters grow
+        RELEASE         // dates released, tool relisted if the borrower had it
+    }
+
+    // Statuses in which the borrower physically has the tool
+    public static final Set<BorrowRequestStatus> TOOL_OUT = EnumSet.of(COLLECTED, RETURNED);
+
+    private final Set<BorrowRequestStatus> from;
+    private final BorrowRequestStatus to;
+    private final Actor actor;
+    private final Effect effect;
+    private final NotificationType notification;
+    private final String defaultNote;
+    private final String actorError;
+    private final String statusError;
+
+    BorrowTransition(Set<BorrowRequestStatus> from, BorrowRequestStatus to, Actor actor, Effect effect,
+                     NotificationType notification, String defaultNote, String actorError, String statusError) {
+        this.from = from;
+        this.to = to;
+        this.actor = actor;
+        this.effect = effect;
+        this.notification = notification;
+        this.defaultNote = defaultNote;
+        this.actorError = actorError;
+        this.statusError = statusError;
+    }
+
+    /**
+     * The party taking the step, or null when the user may not take it
+     */
+    public User actingUser(BorrowRequest borrowRequest, Long userId) {
+        User owner = borrowRequest.getTool().getOwner();
+        User borrower = borrowRequest.getBorrower();
+        boolean isOwner = owner.getId().equals(userId);
+        boolean isBorrower = borrower.getId().equals(userId);
+        return switch (actor) {
+            case OWNER -> isOwner ? owner : null;
+            case BORROWER -> isBorrower ? borrower : null;
+            case EITHER -> isOwner ? owner : isBorrower ? borrower : null;
+        };
+    }
+
+    public boolean allowedFrom(BorrowRequestStatus status) {
+        return from.contains(status);
+    }
+
+    public BorrowRequestStatus getTo() { return to; }
+    public Effect getEffect() { return effect; }
+    public NotificationType getNotification() { return notification; }
+    public String getDefaultNote() { return defaultNote; }
+    public String getActorError() { return actorError; }
+    public String getStatusError() { return statusError; }
+}
@@ -27,9 +27,8 @@ public class ChatService {
      * Save message to database
      */
     @Transactional
-    public Message saveMessage(ChatMessage chatMessage, String userEmail) {
-        User sender = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    public Message saveMessage(ChatMessage chatMessage, Long userId) {
+        User sender = userRepository.getReferenceById(userId);
 
         BorrowRequest borrowRequest = borrowRequestRepository.findById(chatMessage.getBorrowRequestId())
                 .orElseThrow(() -> new IllegalArgumentException("Borrow request not found"));
@@ -47,9 +46,9 @@ public class ChatService {
     /**
      * Get chat history for a borrow request
      */
-    public List<ChatMessage> getChatHistory(Long borrowRequestId, String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    @Transactional(readOnly = true)
+    public List<ChatMessage> getChatHistory(Long borrowRequestId, Long userId) {
+        User user = userRepository.getReferenceById(userId);
 
         BorrowRequest borrowRequest = borrowRequestRepository.findById(borrowRequestId)
                 .orElseThrow(() -> new IllegalArgumentException("Borrow request not found"));
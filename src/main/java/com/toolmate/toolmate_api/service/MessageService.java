@@ -10,6 +10,7 @@ import com.toolmate.toolmate_api.repository.MessageRepository;
 import com.toolmate.toolmate_api.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -22,9 +23,9 @@ public class MessageService {
     private final BorrowRequestRepository borrowRequestRepository;
     private final UserRepository userRepository;
 
-    public MessageResponse sendMessage(MessageRequest request, String userEmail) {
-        User sender = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    @Transactional
+    public MessageResponse sendMessage(MessageRequest request, Long userId) {
+        User sender = userRepository.getReferenceById(userId);
 
         BorrowRequest borrowRequest = borrowRequestRepository.findById(request.getBorrowRequestId())
                 .orElseThrow(() -> new IllegalArgumentException("Borrow request not found"));
@@ -46,9 +47,9 @@ public class MessageService {
         );
     }
 
-    public List<MessageResponse> getMessages(Long borrowRequestId, String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    @Transactional(readOnly = true)
+    public List<MessageResponse> getMessages(Long borrowRequestId, Long userId) {
+        User user = userRepository.getReferenceById(userId);
 
         BorrowRequest borrowRequest = borrowRequestRepository.findById(borrowRequestId)
                 .orElseThrow(() -> new IllegalArgumentException("Borrow request not found"));
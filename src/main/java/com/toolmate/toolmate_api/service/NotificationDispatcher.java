@@ -0,0 +1,129 @@
+package com.toolmate.toolmate_api.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Relays lifecycle events as soon as the transaction that recorded them commits,
+ * off the request thread. Committed events wait in a bounded queue; a few worker
+ * threads take them in micro-batches and hand the borrow request ids to the relay.
+ * When the queue is full the event is simply left to the relay's poll; its outbox
+ * row is already committed, so nothing is lost either way. On shutdown the workers
+ * finish what is queued before the context closes.
+ * Queue depth is exposed as "notifications.dispatch.queue".
+ */
+@Component
+@Slf4j
+public class NotificationDispatcher {
+
+    private final NotificationOutboxRelay relay;
+    private final BlockingQueue<BorrowLifecycleEvent> queue;
+    private final ExecutorService workers;
+    private final int maxBatch;
+    private final Duration drainTimeout;
+    private final Counter overflow;
+    private final Counter failures;
+    private volatile boolean running = true;
+
+    public NotificationDispatcher(NotificationOutboxRelay relay,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${notifications.dispatch.threads:2}") int threads,
+                                  @Value("${notifications.dispatch.queue-capacity:1000}") int queueCapacity,
+                                  @Value("${notifications.dispatch.max-batch:50}") int maxBatch,
+                                  @Value("${notifications.dispatch.drain-timeout:20s}") Duration drainTimeout) {
+        this.relay = relay;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatch = maxBatch;
+        this.drainTimeout = drainTimeout;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "notification-dispatch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < threads; i++) {
+            workers.execute(this::work);
+        }
+
+        Gauge.builder("notifications.dispatch.queue", queue, BlockingQueue::size)
+                .description("Committed lifecycle events waiting to be relayed")
+                .register(meterRegistry);
+        this.overflow = Counter.builder("notifications.dispatch.overflow")
+                .description("Events left to the outbox poll because the dispatch queue was full")
+                .register(meterRegistry);
+        this.failures = Counter.builder("notifications.dispatch.failures")
+                .description("Micro-batches that failed and were left to the outbox poll")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCommitted(BorrowLifecycleEvent event) {
+        if (!running || !queue.offer(event)) {
+            overflow.increment();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        workers.shutdown();
+        if (!workers.awaitTermination(drainTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Notification dispatch did not drain within {}, {} events left to the outbox poll",
+                    drainTimeout, queue.size());
+            workers.shutdownNow();
+        }
+    }
+
+    private void work() {
+        List<BorrowLifecycleEvent> batch = new ArrayList<>(maxBatch);
+        // Once stopped, keep taking until the queue is empty
+        while (running || !queue.isEmpty()) {
+            try {
+                BorrowLifecycleEvent first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void dispatch(List<BorrowLifecycleEvent> batch) {
+        Set<Long> borrowRequestIds = batch.stream()
+                .map(BorrowLifecycleEvent::borrowRequestId)
+                .collect(Collectors.toSet());
+        try {
+            relay.relayRequests(borrowRequestIds);
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Dispatching {} notification events failed, leaving them to the outbox poll", batch.size(), e);
+        }
+    }
+}
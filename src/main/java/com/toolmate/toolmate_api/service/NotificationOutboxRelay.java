@@ -0,0 +1,204 @@
+package com.toolmate.toolmate_api.service;
+
+import com.toolmate.toolmate_api.entity.BorrowRequest;
+import com.toolmate.toolmate_api.entity.Notification;
+import com.toolmate.toolmate_api.entity.OutboxEvent;
+import com.toolmate.toolmate_api.repository.BorrowRequestRepository;
+import com.toolmate.toolmate_api.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Turns outbox events into notifications. Each poll claims a batch of pending
+ * events (SKIP LOCKED, so several instances can run side by side), inserts all of
+ * their notifications in one statement and marks the events processed in the same
+ * transaction. An event is therefore relayed at least once; one that fails is
+ * retried with growing delays. Pushes go out after the commit.
+ * NotificationDispatcher relays fresh events right after their transaction commits;
+ * the scheduled poll is the safety net for anything it missed. The time from an
+ * event being recorded to it being relayed is timed under "notifications.outbox.lag".
+ */
+@Component
+@Slf4j
+public class NotificationOutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final BorrowRequestRepository borrowRequestRepository;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration retention;
+    private final Timer lag;
+
+    public NotificationOutboxRelay(OutboxEventRepository outboxEventRepository,
+                                   BorrowRequestRepository borrowRequestRepository,
+                                   NotificationService notificationService,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${notifications.outbox.batch-size:100}") int batchSize,
+                                   @Value("${notifications.outbox.max-attempts:10}") int maxAttempts,
+                                   @Value("${notifications.outbox.retry-backoff:5s}") Duration retryBackoff,
+                                   @Value("${notifications.outbox.retention:7d}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.borrowRequestRepository = borrowRequestRepository;
+        this.notificationService = notificationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.retention = retention;
+        this.lag = Timer.builder("notifications.outbox.lag")
+                .description("Time from an outbox event being recorded to its notifications being stored")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.outbox.poll-interval-ms:1000}")
+    public void poll() {
+        try {
+            // Keep going while batches come back full, so a backlog drains without waiting for the next tick
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+        } catch (RuntimeException e) {
+            // The batch rolled back and its events stay pending for the next poll
+            log.error("Notification outbox relay failed", e);
+        }
+    }
+
+    /**
+     * Relay one batch of pending events and return how many were claimed
+     */
+    public int relayBatch() {
+        return relay(now -> outboxEventRepository.claimPending(now, batchSize));
+    }
+
+    /**
+     * Relay the pending events of just these borrow requests. Events another instance
+     * is already relaying are skipped, not waited for.
+     */
+    public int relayRequests(Collection<Long> borrowRequestIds) {
+        return relay(now -> outboxEventRepository.claimPendingForRequests(borrowRequestIds, now, batchSize));
+    }
+
+    private int relay(Function<LocalDateTime, List<OutboxEvent>> claim) {
+        List<Notification> created = new ArrayList<>();
+        Integer claimed;
+        try {
+            claimed = transactionTemplate.execute(status -> relay(claim.apply(LocalDateTime.now()), created));
+        } catch (RuntimeException e) {
+            // The batch rolled back as a whole (typically the insert); retry its events one at a time
+            // so a bad one is isolated, counted against its attempts and cannot hold up the others
+            log.warn("Relaying an outbox batch failed, retrying its events one by one", e);
+            return relayOneByOne(claim);
+        }
+
+        notificationService.deliver(created);
+        return claimed != null ? claimed : 0;
+    }
+
+    private int relayOneByOne(Function<LocalDateTime, List<OutboxEvent>> claim) {
+        List<Long> eventIds = transactionTemplate.execute(status -> claim.apply(LocalDateTime.now()).stream()
+                .map(OutboxEvent::getId)
+                .toList());
+        if (eventIds == null) {
+            return 0;
+        }
+        for (Long eventId : eventIds) {
+            List<Notification> created = new ArrayList<>();
+            try {
+                transactionTemplate.executeWithoutResult(status -> relay(
+                        outboxEventRepository.claimPendingById(eventId).stream().toList(), created));
+            } catch (RuntimeException e) {
+                transactionTemplate.executeWithoutResult(status -> outboxEventRepository.findById(eventId)
+                        .filter(event -> event.getProcessedAt() == null)
+                        .ifPresent(event -> scheduleRetry(event, LocalDateTime.now(), e)));
+                continue;
+            }
+            notificationService.deliver(created);
+        }
+        return eventIds.size();
+    }
+
+    /**
+     * Expand claimed events into notifications, insert them and mark the events processed.
+     * Runs inside the caller's transaction; failures of single events are scheduled for retry.
+     */
+    private int relay(List<OutboxEvent> events, List<Notification> created) {
+        LocalDateTime now = LocalDateTime.now();
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, BorrowRequest> requests = borrowRequestRepository.findAllForTransition(
+                        events.stream().map(OutboxEvent::getBorrowRequestId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(BorrowRequest::getId, Function.identity()));
+
+        for (OutboxEvent event : events) {
+            BorrowRequest borrowRequest = requests.get(event.getBorrowRequestId());
+            if (borrowRequest == null) {
+                // The request is gone, there is nobody left to tell
+                event.setLastError("Borrow request no longer exists");
+                event.setProcessedAt(now);
+                continue;
+            }
+            try {
+                created.addAll(notificationService.expand(event, borrowRequest));
+                event.setProcessedAt(now);
+                lag.record(Duration.between(event.getCreatedAt(), now).toMillis(), TimeUnit.MILLISECONDS);
+            } catch (RuntimeException e) {
+                scheduleRetry(event, now, e);
+            }
+        }
+
+        notificationService.insertAll(created);
+        return events.size();
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.outbox.purge-interval-ms:3600000}")
+    public void purgeProcessed() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deleteProcessedBefore(LocalDateTime.now().minus(retention)));
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} processed outbox events", deleted);
+        }
+    }
+
+    private void scheduleRetry(OutboxEvent event, LocalDateTime now, RuntimeException e) {
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        event.setLastError(truncate(e.toString()));
+        if (attempts >= maxAttempts) {
+            log.error("Giving up on outbox event {} ({}) after {} attempts", event.getId(), event.getType(), attempts, e);
+            event.setProcessedAt(now);
+            return;
+        }
+        // 5s, 10s, 20s, ... capped at one hour
+        Duration delay = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 10));
+        event.setNextAttemptAt(now.plus(delay.compareTo(Duration.ofHours(1)) > 0 ? Duration.ofHours(1) : delay));
+        log.warn("Outbox event {} failed (attempt {}), retrying at {}", event.getId(), attempts, event.getNextAttemptAt(), e);
+    }
+
+    private static String truncate(String error) {
+        return error.length() > 500 ? error.substring(0, 500) : error;
+    }
+}
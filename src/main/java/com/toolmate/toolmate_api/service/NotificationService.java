@@ -1,53 +1,200 @@
 package com.toolmate.toolmate_api.service;
 
+import com.toolmate.toolmate_api.dto.response.NotificationCatchUpResponse;
+import com.toolmate.toolmate_api.dto.response.NotificationPush;
+import com.toolmate.toolmate_api.dto.response.NotificationResponse;
+import com.toolmate.toolmate_api.entity.BorrowRequest;
 import com.toolmate.toolmate_api.entity.Notification;
 import com.toolmate.toolmate_api.entity.NotificationType;
+import com.toolmate.toolmate_api.entity.OutboxEvent;
+import com.toolmate.toolmate_api.entity.Tool;
 import com.toolmate.toolmate_api.entity.User;
+import com.toolmate.toolmate_api.push.PushMessage;
+import com.toolmate.toolmate_api.push.PushSender;
 import com.toolmate.toolmate_api.repository.NotificationRepository;
+import com.toolmate.toolmate_api.repository.OutboxEventRepository;
 import com.toolmate.toolmate_api.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationService {
 
+    public static final String USER_QUEUE = "/queue/notifications";
+    public static final int MAX_CATCH_UP = 200;
+
+    // Column lengths of notifications.title and notifications.message
+    private static final int MAX_TITLE_LENGTH = 255;
+    private static final int MAX_MESSAGE_LENGTH = 500;
+
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final PushSender pushSender;
+
+    // ========== OUTBOX ==========
 
     /**
-     * Create a professional notification
+     * Record a borrow lifecycle event in the publisher's transaction. The notifications
+     * themselves are written and pushed later by NotificationOutboxRelay, so they
+     * exist if and only if the change that caused them committed.
      */
-    @Transactional
-    public void createNotification(
-            User user,
-            NotificationType type,
-            String customMessage,
-            Long relatedId,
-            String priority
-    ) {
-        try {
-            Notification notification = Notification.builder()
-                    .user(user)
-                    .title(type.getEmoji() + " " + type.getTitle())
-                    .message(customMessage)
-                    .type(type)
-                    .relatedId(relatedId)
-                    .priority(priority != null ? priority : "NORMAL")
-                    .build();
-
-            notificationRepository.save(notification);
-            log.info("Notification created: {} for user: {}", type, user.getId());
-
-        } catch (Exception e) {
-            log.error("Failed to create notification for user: {}", user.getId(), e);
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(BorrowLifecycleEvent lifecycleEvent) {
+        OutboxEvent event = new OutboxEvent();
+        event.setType(lifecycleEvent.type());
+        event.setBorrowRequestId(lifecycleEvent.borrowRequestId());
+        event.setActorId(lifecycleEvent.actorId());
+        outboxEventRepository.save(event);
+    }
+
+    /**
+     * The notifications an outbox event stands for, not yet saved
+     */
+    public List<Notification> expand(OutboxEvent event, BorrowRequest borrowRequest) {
+        Tool tool = borrowRequest.getTool();
+        User owner = tool.getOwner();
+        User borrower = borrowRequest.getBorrower();
+        Long requestId = borrowRequest.getId();
+
+        return switch (event.getType()) {
+            case REQUEST_RECEIVED -> List.of(notifyRequestReceived(
+                    owner, borrower.getFullName(), tool.getName(), requestId));
+            case REQUEST_ACCEPTED -> List.of(notifyRequestAccepted(
+                    borrower, tool.getName(), owner.getFullName(), owner.getPhoneNumber(), requestId));
+            case REQUEST_REJECTED -> List.of(notifyRequestRejected(
+                    borrower, tool.getName(), owner.getFullName(), requestId));
+            case TOOL_COLLECTED -> List.of(notifyToolCollected(
+                    owner, borrower.getFullName(), tool.getName(), requestId));
+            case TOOL_RETURNED -> List.of(notifyToolReturned(
+                    owner, borrower.getFullName(), tool.getName(), requestId));
+            case TRANSACTION_COMPLETED -> List.of(
+                    notifyTransactionCompleted(borrower, owner.getFullName(), tool.getName(), requestId),
+                    notifyTransactionCompleted(owner, borrower.getFullName(), tool.getName(), requestId),
+                    notifyReviewReminder(borrower, owner.getFullName(), requestId),
+                    notifyReviewReminder(owner, borrower.getFullName(), requestId));
+            case REQUEST_CANCELLED -> {
+                // Tell the other party
+                boolean byBorrower = borrower.getId().equals(event.getActorId());
+                User actor = byBorrower ? borrower : owner;
+                User otherUser = byBorrower ? owner : borrower;
+                yield List.of(notifyRequestCancelled(otherUser, actor.getFullName(), tool.getName(), requestId));
+            }
+            default -> throw new IllegalStateException("No recipients defined for " + event.getType());
+        };
+    }
+
+    /**
+     * Insert notifications in one statement and fill in their generated ids
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void insertAll(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO notifications (user_id, title, message, type, is_read, related_id, priority, created_at) VALUES ");
+        List<Object> args = new ArrayList<>(notifications.size() * 8);
+        for (int i = 0; i < notifications.size(); i++) {
+            Notification notification = notifications.get(i);
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, ?, ?, ?)");
+            args.add(notification.getUser().getId());
+            args.add(notification.getTitle());
+            args.add(notification.getMessage());
+            args.add(notification.getType().name());
+            args.add(notification.getIsRead());
+            args.add(notification.getRelatedId());
+            args.add(notification.getPriority());
+            args.add(Timestamp.valueOf(notification.getCreatedAt()));
+        }
+        // PostgreSQL returns the generated keys in VALUES order
+        sql.append(" RETURNING id");
+
+        List<Long> ids = jdbcTemplate.queryForList(sql.toString(), Long.class, args.toArray());
+        for (int i = 0; i < ids.size(); i++) {
+            notifications.get(i).setId(ids.get(i));
+        }
+    }
+
+    /**
+     * Push stored notifications to their users: over WebSocket to open sessions, with
+     * the user's unread count so clients need not poll for it, and in the background to
+     * every user's registered device. Best effort; a client that was offline catches up
+     * with getNotificationsSince when it reconnects.
+     */
+    public void deliver(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
         }
+        // One query for the whole batch; counts include every notification in it
+        Map<Long, Long> unreadCounts = notificationRepository.countUnreadByUserIds(notifications.stream()
+                        .map(notification -> notification.getUser().getId())
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(NotificationRepository.UnreadCount::getUserId,
+                        NotificationRepository.UnreadCount::getCount));
+
+        List<PushMessage> pushes = new ArrayList<>();
+        for (Notification notification : notifications) {
+            User user = notification.getUser();
+            try {
+                messagingTemplate.convertAndSendToUser(String.valueOf(user.getId()), USER_QUEUE,
+                        new NotificationPush(toResponse(notification), unreadCounts.getOrDefault(user.getId(), 0L)));
+            } catch (RuntimeException e) {
+                log.warn("WebSocket push failed for notification {}", notification.getId(), e);
+            }
+            if (user.getFcmToken() != null && !user.getFcmToken().isBlank()) {
+                pushes.add(new PushMessage(user.getFcmToken(), notification.getTitle(), notification.getMessage(),
+                        Map.of("click_action", notification.getType().name(),
+                                "related_id", String.valueOf(notification.getRelatedId()))));
+            }
+        }
+        pushSender.send(pushes);
+    }
+
+    private static NotificationResponse toResponse(Notification notification) {
+        return new NotificationResponse(notification.getId(), notification.getTitle(), notification.getMessage(),
+                notification.getType(), notification.getIsRead(), notification.getRelatedId(),
+                notification.getPriority(), notification.getCreatedAt(), notification.getReadAt());
+    }
+
+    private Notification buildNotification(User user, NotificationType type, String message,
+                                           Long relatedId, String priority) {
+        // The builder ignores the entity's field defaults, so they are set here
+        return Notification.builder()
+                .user(user)
+                .title(fit(type.getEmoji() + " " + type.getTitle(), MAX_TITLE_LENGTH))
+                .message(fit(message, MAX_MESSAGE_LENGTH))
+                .type(type)
+                .isRead(false)
+                .relatedId(relatedId)
+                .priority(priority != null ? priority : "NORMAL")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    // Long tool and user names (up to 255 characters each) must not make the insert fail
+    private static String fit(String text, int maxLength) {
+        return text.length() <= maxLength ? text : text.substring(0, maxLength - 1) + "…";
     }
 
     // ========== HELPER METHODS FOR EACH NOTIFICATION TYPE ==========
@@ -55,89 +202,89 @@ public class NotificationService {
     /**
      * REQUEST_RECEIVED: When someone requests to borrow your tool
      */
-    public void notifyRequestReceived(User owner, String borrowerName, String toolName, Long requestId) {
+    public Notification notifyRequestReceived(User owner, String borrowerName, String toolName, Long requestId) {
         String message = String.format(
                 "%s wants to borrow your %s. Tap to view details and respond.",
                 borrowerName, toolName
         );
-        createNotification(owner, NotificationType.REQUEST_RECEIVED, message, requestId, "HIGH");
+        return buildNotification(owner, NotificationType.REQUEST_RECEIVED, message, requestId, "HIGH");
     }
 
     /**
      * REQUEST_ACCEPTED: When owner accepts your borrow request
      */
-    public void notifyRequestAccepted(User borrower, String toolName, String ownerName, String ownerPhone, Long requestId) {
+    public Notification notifyRequestAccepted(User borrower, String toolName, String ownerName, String ownerPhone, Long requestId) {
         String message = String.format(
                 "Great news! %s accepted your request for %s. Contact: %s",
                 ownerName, toolName, ownerPhone
         );
-        createNotification(borrower, NotificationType.REQUEST_ACCEPTED, message, requestId, "HIGH");
+        return buildNotification(borrower, NotificationType.REQUEST_ACCEPTED, message, requestId, "HIGH");
     }
 
     /**
      * REQUEST_REJECTED: When owner rejects your borrow request
      */
-    public void notifyRequestRejected(User borrower, String toolName, String ownerName, Long requestId) {
+    public Notification notifyRequestRejected(User borrower, String toolName, String ownerName, Long requestId) {
         String message = String.format(
                 "%s declined your request for %s. Browse other tools nearby.",
                 ownerName, toolName
         );
-        createNotification(borrower, NotificationType.REQUEST_REJECTED, message, requestId, "NORMAL");
+        return buildNotification(borrower, NotificationType.REQUEST_REJECTED, message, requestId, "NORMAL");
     }
 
     /**
      * TOOL_COLLECTED: When borrower picks up your tool
      */
-    public void notifyToolCollected(User owner, String borrowerName, String toolName, Long requestId) {
+    public Notification notifyToolCollected(User owner, String borrowerName, String toolName, Long requestId) {
         String message = String.format(
                 "%s has picked up your %s. The item is now in their possession.",
                 borrowerName, toolName
         );
-        createNotification(owner, NotificationType.TOOL_COLLECTED, message, requestId, "NORMAL");
+        return buildNotification(owner, NotificationType.TOOL_COLLECTED, message, requestId, "NORMAL");
     }
 
     /**
      * TOOL_RETURNED: When borrower returns your tool
      */
-    public void notifyToolReturned(User owner, String borrowerName, String toolName, Long requestId) {
+    public Notification notifyToolReturned(User owner, String borrowerName, String toolName, Long requestId) {
         String message = String.format(
                 "%s has returned your %s. Please inspect and confirm receipt.",
                 borrowerName, toolName
         );
-        createNotification(owner, NotificationType.TOOL_RETURNED, message, requestId, "HIGH");
+        return buildNotification(owner, NotificationType.TOOL_RETURNED, message, requestId, "HIGH");
     }
 
     /**
      * TRANSACTION_COMPLETED: When transaction is complete
      */
-    public void notifyTransactionCompleted(User user, String otherUserName, String toolName, Long requestId) {
+    public Notification notifyTransactionCompleted(User user, String otherUserName, String toolName, Long requestId) {
         String message = String.format(
                 "Transaction complete! Your %s experience with %s. Rate your experience now.",
                 toolName, otherUserName
         );
-        createNotification(user, NotificationType.TRANSACTION_COMPLETED, message, requestId, "NORMAL");
+        return buildNotification(user, NotificationType.TRANSACTION_COMPLETED, message, requestId, "NORMAL");
     }
 
     /**
      * REVIEW_REMINDER: Remind user to write review
      */
-    public void notifyReviewReminder(User user, String otherUserName, Long requestId) {
+    public Notification notifyReviewReminder(User user, String otherUserName, Long requestId) {
         String message = String.format(
                 "Don't forget to review %s! Your feedback builds trust in our community.",
                 otherUserName
         );
-        createNotification(user, NotificationType.REVIEW_REMINDER, message, requestId, "LOW");
+        return buildNotification(user, NotificationType.REVIEW_REMINDER, message, requestId, "LOW");
     }
 
     /**
      * REQUEST_CANCELLED: When request is cancelled
      */
-    public void notifyRequestCancelled(User user, String otherUserName, String toolName, Long requestId) {
+    public Notification notifyRequestCancelled(User user, String otherUserName, String toolName, Long requestId) {
         String message = String.format(
                 "%s cancelled the request for %s.",
                 otherUserName, toolName
         );
-        createNotification(user, NotificationType.REQUEST_CANCELLED, message, requestId, "NORMAL");
+        return buildNotification(user, NotificationType.REQUEST_CANCELLED, message, requestId, "NORMAL");
     }
 
     // ========== NOTIFICATION MANAGEMENT METHODS ==========
@@ -145,42 +292,52 @@ public class NotificationService {
     /**
      * Get all notifications for a user
      */
-    public List<Notification> getMyNotifications(String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        return notificationRepository.findByUserOrderByCreatedAtDesc(user);
+    @Transactional(readOnly = true)
+    public List<NotificationResponse> getMyNotifications(Long userId) {
+        return notificationRepository.findResponsesByUserId(userId);
     }
 
     /**
      * Get unread notifications
      */
-    public List<Notification> getUnreadNotifications(String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        return notificationRepository.findByUserAndIsReadFalseOrderByCreatedAtDesc(user);
+    @Transactional(readOnly = true)
+    public List<NotificationResponse> getUnreadNotifications(Long userId) {
+        return notificationRepository.findUnreadResponsesByUserId(userId);
+    }
+
+    /**
+     * Notifications newer than the last one a client has seen, oldest first, for
+     * catching up after a reconnect
+     */
+    @Transactional(readOnly = true)
+    public NotificationCatchUpResponse getNotificationsSince(Long userId, Long lastSeenId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_CATCH_UP));
+        List<NotificationResponse> notifications = notificationRepository.findResponsesSince(
+                userId, lastSeenId != null ? lastSeenId : 0L, PageRequest.of(0, pageSize + 1));
+        boolean hasMore = notifications.size() > pageSize;
+        if (hasMore) {
+            notifications = notifications.subList(0, pageSize);
+        }
+        return new NotificationCatchUpResponse(notifications, getUnreadCount(userId), hasMore);
     }
 
     /**
      * Get unread count
      */
-    public Long getUnreadCount(String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        return notificationRepository.countByUserAndIsReadFalse(user);
+    @Transactional(readOnly = true)
+    public Long getUnreadCount(Long userId) {
+        return notificationRepository.countByUserIdAndIsReadFalse(userId);
     }
 
     /**
      * Mark notification as read
      */
     @Transactional
-    public void markAsRead(Long notificationId, String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
+    public void markAsRead(Long notificationId, Long userId) {
         Notification notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new IllegalArgumentException("Notification not found"));
 
-        if (!notification.getUser().getId().equals(user.getId())) {
+        if (!notification.getUser().getId().equals(userId)) {
             throw new IllegalArgumentException("Not authorized");
         }
 
@@ -193,9 +350,8 @@ public class NotificationService {
      * Mark all as read
      */
     @Transactional
-    public void markAllAsRead(String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    public void markAllAsRead(Long userId) {
+        User user = userRepository.getReferenceById(userId);
 
         List<Notification> unreadNotifications =
                 notificationRepository.findByUserAndIsReadFalseOrderByCreatedAtDesc(user);
@@ -213,14 +369,11 @@ public class NotificationService {
      * Delete notification
      */
     @Transactional
-    public void deleteNotification(Long notificationId, String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
+    public void deleteNotification(Long notificationId, Long userId) {
         Notification notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new IllegalArgumentException("Notification not found"));
 
-        if (!notification.getUser().getId().equals(user.getId())) {
+        if (!notification.getUser().getId().equals(userId)) {
             throw new IllegalArgumentException("Not authorized");
         }
 
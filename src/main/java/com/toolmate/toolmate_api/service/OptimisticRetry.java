@@ -0,0 +1,60 @@
+package com.toolmate.toolmate_api.service;
+
+import com.toolmate.toolmate_api.exception.ConflictException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a unit of work in its own transaction and replays it when it loses an
+ * optimistic-lock race. Each attempt re-reads the rows, so the business checks
+ * see the winner's changes; after the last attempt the caller gets a 409.
+ */
+@Component
+@Slf4j
+public class OptimisticRetry {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final Duration backoff;
+
+    public OptimisticRetry(PlatformTransactionManager transactionManager,
+                           @Value("${concurrency.optimistic-retry.max-attempts:3}") int maxAttempts,
+                           @Value("${concurrency.optimistic-retry.backoff:20ms}") Duration backoff) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+    }
+
+    public <T> T execute(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    log.warn("Giving up after {} conflicting attempts: {}", attempt, e.getMessage());
+                    throw new ConflictException("This request was changed by someone else, please reload and try again");
+                }
+                pause(attempt);
+            }
+        }
+    }
+
+    // Linear backoff with jitter so the losers of a race do not collide again in lockstep
+    private void pause(int attempt) {
+        long base = backoff.toMillis() * attempt;
+        try {
+            Thread.sleep(base + ThreadLocalRandom.current().nextLong(base + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Interrupted while retrying a conflicting update");
+        }
+    }
+}
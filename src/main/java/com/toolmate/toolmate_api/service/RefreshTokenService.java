@@ -0,0 +1,153 @@
+package com.toolmate.toolmate_api.service;
+
+import com.toolmate.toolmate_api.entity.RefreshToken;
+import com.toolmate.toolmate_api.entity.User;
+import com.toolmate.toolmate_api.exception.InvalidTokenException;
+import com.toolmate.toolmate_api.repository.RefreshTokenRepository;
+import com.toolmate.toolmate_api.security.AuthenticatedUser;
+import com.toolmate.toolmate_api.security.JwtUtil;
+import com.toolmate.toolmate_api.security.RevokedTokenRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtUtil jwtUtil;
+    private final RevokedTokenRegistry revokedTokenRegistry;
+
+    @Value("${jwt.refresh-expiration:30d}")
+    private Duration refreshExpiration;
+
+    public record IssuedTokens(User user, String accessToken, String refreshToken) {
+    }
+
+    /**
+     * Start a new session for a user who just registered or logged in
+     */
+    @Transactional
+    public IssuedTokens issue(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Trade a refresh token for a new access/refresh pair. The presented token is
+     * revoked; presenting it again later ends the whole session.
+     */
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public IssuedTokens rotate(String refreshToken) {
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .orElseThrow(() -> new InvalidTokenException("Invalid refresh token"));
+
+        if (current.getRevoked()) {
+            // A rotated-out token came back: assume it was copied and end the session everywhere
+            log.warn("Refresh token reuse detected for user {}, revoking session", current.getUser().getId());
+            revoke(refreshTokenRepository.findLiveByFamilyId(current.getFamilyId(), LocalDateTime.now()));
+            throw new InvalidTokenException("Refresh token was already used, please log in again");
+        }
+        if (current.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new InvalidTokenException("Refresh token expired, please log in again");
+        }
+
+        User user = current.getUser();
+        if (!Boolean.TRUE.equals(user.getIsActive())) {
+            revoke(List.of(current));
+            throw new InvalidTokenException("Account is deactivated");
+        }
+
+        // The access token issued with it stays valid until it expires; clients may still have requests in flight
+        current.setRevoked(true);
+        return issue(user, current.getFamilyId());
+    }
+
+    /**
+     * Log out: end the session the refresh token belongs to, including its current access token
+     */
+    @Transactional
+    public void revokeSession(String refreshToken) {
+        refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .ifPresent(token -> revoke(refreshTokenRepository.findLiveByFamilyId(
+                        token.getFamilyId(), LocalDateTime.now())));
+    }
+
+    /**
+     * End every session of a user (password change, account deletion)
+     */
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        revoke(refreshTokenRepository.findLiveByUserId(userId, LocalDateTime.now()));
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Purged {} expired refresh tokens", deleted);
+        }
+    }
+
+    private IssuedTokens issue(User user, String familyId) {
+        String jti = UUID.randomUUID().toString();
+        String accessToken = jwtUtil.generateToken(user.getId(), user.getEmail(), AuthenticatedUser.ROLE_USER, jti);
+        String refreshToken = newTokenValue();
+        LocalDateTime now = LocalDateTime.now();
+
+        RefreshToken row = new RefreshToken();
+        row.setUser(user);
+        row.setTokenHash(hash(refreshToken));
+        row.setFamilyId(familyId);
+        row.setAccessJti(jti);
+        // Never earlier than the token's own exp claim, which was stamped just before
+        row.setAccessExpiresAt(now.plus(jwtUtil.getAccessTokenTtl()));
+        row.setExpiresAt(now.plus(refreshExpiration));
+        refreshTokenRepository.save(row);
+
+        return new IssuedTokens(user, accessToken, refreshToken);
+    }
+
+    private void revoke(List<RefreshToken> tokens) {
+        for (RefreshToken token : tokens) {
+            token.setRevoked(true);
+            if (!token.getAccessRevoked()) {
+                token.setAccessRevoked(true);
+                revokedTokenRegistry.revoke(token.getAccessJti(), token.getAccessExpiresAt());
+            }
+        }
+    }
+
+    private static String newTokenValue() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
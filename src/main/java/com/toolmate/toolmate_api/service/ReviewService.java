@@ -21,12 +21,12 @@ public class ReviewService {
 
     private final ReviewRepository reviewRepository;
     private final UserRepository userRepository;
+    private final UserProfileCache userProfileCache;
     private final ToolRepository toolRepository;
 
     @Transactional
-    public ReviewResponse createReview(ReviewRequest request, String userEmail) {
-        User reviewer = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    public ReviewResponse createReview(ReviewRequest request, Long userId) {
+        User reviewer = userRepository.getReferenceById(userId);
 
         User reviewee = userRepository.findById(request.getRevieweeId())
                 .orElseThrow(() -> new IllegalArgumentException("Reviewee not found"));
@@ -92,6 +92,7 @@ public class ReviewService {
                     .orElse(0.0);
             user.setRating(averageRating);
             userRepository.save(user);
+            userProfileCache.evict(userId);
         }
     }
 }
\ No newline at end of file
@@ -1,16 +1,37 @@
 package com.toolmate.toolmate_api.service;
 
+import com.toolmate.toolmate_api.dto.response.AvailabilityWindowResponse;
 import com.toolmate.toolmate_api.dto.response.OwnerDTO;
+import com.toolmate.toolmate_api.dto.response.ToolPageResponse;
 import com.toolmate.toolmate_api.dto.request.ToolRequest;
 import com.toolmate.toolmate_api.dto.response.ToolResponse;
+import com.toolmate.toolmate_api.dto.response.ToolSuggestionResponse;
+import com.toolmate.toolmate_api.dto.response.UserDTO;
 import com.toolmate.toolmate_api.entity.Tool;
 import com.toolmate.toolmate_api.entity.User;
 import com.toolmate.toolmate_api.repository.ToolRepository;
 import com.toolmate.toolmate_api.repository.UserRepository;
+import com.toolmate.toolmate_api.search.ToolAttributeIndex;
+import com.toolmate.toolmate_api.search.ToolAutocompleteIndex;
+import com.toolmate.toolmate_api.search.ToolAvailabilityCalendar;
+import com.toolmate.toolmate_api.search.ToolFilter;
+import com.toolmate.toolmate_api.search.ToolGeoIndex;
+import com.toolmate.toolmate_api.search.ToolIndexer;
+import com.toolmate.toolmate_api.search.ToolLocation;
+import com.toolmate.toolmate_api.search.ToolTextIndex;
+import com.toolmate.toolmate_api.search.ToolTrigramIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,10 +40,30 @@ public class ToolService {
 
     private final ToolRepository toolRepository;
     private final UserRepository userRepository;
-
-    public ToolResponse createTool(ToolRequest request, String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    private final UserProfileCache userProfileCache;
+    private final ToolIndexer toolIndexer;
+    private final ToolGeoIndex toolGeoIndex;
+    private final ToolAttributeIndex toolAttributeIndex;
+    private final ToolTextIndex toolTextIndex;
+    private final ToolAutocompleteIndex toolAutocompleteIndex;
+    private final ToolTrigramIndex toolTrigramIndex;
+    private final ToolAvailabilityCalendar toolAvailabilityCalendar;
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SUGGESTIONS = 20;
+    // pg_trgm's default similarity threshold
+    private static final double FUZZY_MIN_SIMILARITY = 0.3;
+    // Distance at which a search match keeps half of its text relevance
+    private static final double SEARCH_DISTANCE_DECAY_KM = 5.0;
+    private static final int MAX_CALENDAR_DAYS = 366;
+
+    @Value("${tools.nearby.use-geo-index:true}")
+    private boolean useGeoIndex;
+
+    @Transactional
+    public ToolResponse createTool(ToolRequest request, Long userId) {
+        User user = userRepository.getReferenceById(userId);
 
         Tool tool = new Tool();
         tool.setName(request.getName());
@@ -36,60 +77,227 @@ public class ToolService {
         tool.setOwner(user);
 
         Tool savedTool = toolRepository.save(tool);
+        toolIndexer.onToolSaved(savedTool);
         return convertToResponse(savedTool, 0.0);
     }
 
-    public ToolResponse getToolById(Long toolId, String userEmail) {
-        User currentUser = userRepository.findByEmail(userEmail)
+    @Transactional(readOnly = true)
+    public ToolResponse getToolById(Long toolId, Long userId) {
+        UserDTO currentUser = userProfileCache.get(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
-        Tool tool = toolRepository.findById(toolId)
+        ToolRepository.ToolRow tool = toolRepository.findToolRowById(toolId)
                 .orElseThrow(() -> new IllegalArgumentException("Tool not found"));
 
         double distance = calculateDistance(
                 currentUser.getLatitude(), currentUser.getLongitude(),
-                tool.getOwner().getLatitude(), tool.getOwner().getLongitude()
+                tool.getOwnerLatitude(), tool.getOwnerLongitude()
         );
 
-        return convertToResponse(tool, distance);
+        return convertToResponse(tool, toolRepository.findImageUrlsByToolIds(List.of(toolId)), distance);
     }
 
-    public List<ToolResponse> getAvailableTools(String userEmail, Double maxDistance) {
-        User currentUser = userRepository.findByEmail(userEmail)
+    @Transactional(readOnly = true)
+    public ToolPageResponse getAvailableTools(Long userId, Double maxDistance, ToolFilter filter,
+                                              LocalDateTime availableFrom, LocalDateTime availableTo,
+                                              int limit, String cursor) {
+        UserDTO currentUser = userProfileCache.get(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
-        List<Tool> tools = toolRepository.findAvailableToolsExcludingUser(currentUser.getId());
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        LongPredicate freeOnDates = freeOnDates(availableFrom, availableTo);
+        int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+        ToolGeoIndex.Hit after = decodeCursor(cursor);
+
+        // One extra hit tells us whether another page exists.
+        // Filtered queries use the attribute bitmaps, unfiltered ones the geo grid,
+        // and PostgreSQL serves both when the indexes are disabled or still warming up
+        List<ToolGeoIndex.Hit> hits;
+        if (useGeoIndex && !filter.isEmpty() && toolAttributeIndex.isReady()) {
+            hits = toolAttributeIndex.findNearest(currentUser.getLatitude(), currentUser.getLongitude(),
+                    maxDistance, currentUser.getId(), filter, pageSize + 1, after, freeOnDates);
+        } else if (useGeoIndex && filter.isEmpty() && toolGeoIndex.isReady()) {
+            hits = toolGeoIndex.findNearest(currentUser.getLatitude(), currentUser.getLongitude(),
+                    maxDistance, currentUser.getId(), pageSize + 1, after, freeOnDates);
+        } else {
+            hits = findNearestFromDatabase(currentUser, maxDistance, filter, availableFrom, availableTo,
+                    pageSize + 1, after);
+        }
 
-        return tools.stream()
-                .map(tool -> {
+        String nextCursor = null;
+        if (hits.size() > pageSize) {
+            hits = hits.subList(0, pageSize);
+            nextCursor = encodeCursor(hits.get(pageSize - 1));
+        }
+
+        List<Long> toolIds = hits.stream().map(ToolGeoIndex.Hit::toolId).collect(Collectors.toList());
+        Map<Long, ToolRepository.ToolRow> toolsById = findToolRowsById(toolIds);
+        Map<Long, List<String>> imageUrls = toolRepository.findImageUrlsByToolIds(toolIds);
+
+        // Hits are already in distance order; skip anything that changed since it was indexed
+        List<ToolResponse> tools = hits.stream()
+                .map(hit -> {
+                    ToolRepository.ToolRow tool = toolsById.get(hit.toolId());
+                    return tool != null && tool.getIsAvailable()
+                            ? convertToResponse(tool, imageUrls, hit.distance())
+                            : null;
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        return new ToolPageResponse(tools, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ToolResponse> searchTools(String query, Double maxDistance, LocalDateTime availableFrom,
+                                          LocalDateTime availableTo, int limit, Long userId) {
+        UserDTO currentUser = userProfileCache.get(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query is required");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        LongPredicate freeOnDates = freeOnDates(availableFrom, availableTo);
+
+        // Only available tools (those in the geo index) outside the caller's own listings are ranked;
+        // relevance decays with distance so a close match beats a slightly better one across town
+        List<ToolTextIndex.Match> matches = toolTextIndex.search(query, Math.min(limit, MAX_PAGE_SIZE),
+                (toolId, textScore) -> {
+                    ToolLocation location = toolGeoIndex.locate(toolId);
+                    if (location == null || location.ownerId().equals(currentUser.getId())) {
+                        return Double.NaN;
+                    }
                     double distance = calculateDistance(
                             currentUser.getLatitude(), currentUser.getLongitude(),
-                            tool.getOwner().getLatitude(), tool.getOwner().getLongitude()
+                            location.latitude(), location.longitude()
                     );
-                    return convertToResponse(tool, distance);
+                    if (maxDistance != null && distance > maxDistance) {
+                        return Double.NaN;
+                    }
+                    if (freeOnDates != null && !freeOnDates.test(toolId)) {
+                        return Double.NaN;
+                    }
+                    return textScore / (1.0 + distance / SEARCH_DISTANCE_DECAY_KM);
+                });
+
+        // Nothing matched exactly: assume a typo and fall back to trigram similarity
+        if (matches.isEmpty()) {
+            return fuzzySearch(currentUser, query, maxDistance, freeOnDates, limit);
+        }
+
+        return toResponsesInOrder(
+                matches.stream().map(ToolTextIndex.Match::toolId).collect(Collectors.toList()), currentUser);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ToolResponse> fuzzySearchTools(String query, Double maxDistance, int limit, Long userId) {
+        UserDTO currentUser = userProfileCache.get(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query is required");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+
+        return fuzzySearch(currentUser, query, maxDistance, null, limit);
+    }
+
+    // Best trigram matches among available tools, most similar first, then nearest first
+    private List<ToolResponse> fuzzySearch(UserDTO currentUser, String query, Double maxDistance,
+                                           LongPredicate freeOnDates, int limit) {
+        List<Long> toolIds = toolTrigramIndex.search(query, FUZZY_MIN_SIMILARITY).stream()
+                .map(match -> {
+                    ToolLocation location = toolGeoIndex.locate(match.toolId());
+                    if (location == null || location.ownerId().equals(currentUser.getId())) {
+                        return null;
+                    }
+                    double distance = calculateDistance(
+                            currentUser.getLatitude(), currentUser.getLongitude(),
+                            location.latitude(), location.longitude()
+                    );
+                    return maxDistance == null || distance <= maxDistance
+                            ? new FuzzyHit(match.toolId(), match.similarity(), distance)
+                            : null;
                 })
-                .filter(toolResponse -> maxDistance == null || toolResponse.getDistance() <= maxDistance)
-                .sorted((t1, t2) -> Double.compare(t1.getDistance(), t2.getDistance()))
+                .filter(hit -> hit != null && (freeOnDates == null || freeOnDates.test(hit.toolId())))
+                .sorted(Comparator.comparingDouble(FuzzyHit::similarity).reversed()
+                        .thenComparingDouble(FuzzyHit::distance))
+                .limit(Math.min(limit, MAX_PAGE_SIZE))
+                .map(FuzzyHit::toolId)
                 .collect(Collectors.toList());
+
+        return toResponsesInOrder(toolIds, currentUser);
     }
 
-    public List<ToolResponse> getMyTools(String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    private record FuzzyHit(Long toolId, double similarity, double distance) {
+    }
 
-        return toolRepository.findByOwner(user).stream()
-                .map(tool -> convertToResponse(tool, 0.0))
+    /**
+     * Gaps between accepted loans of the tool inside [from, to); defaults to the next 30 days
+     */
+    public List<AvailabilityWindowResponse> getFreeWindows(Long toolId, LocalDateTime from, LocalDateTime to) {
+        if (!toolRepository.existsById(toolId)) {
+            throw new IllegalArgumentException("Tool not found");
+        }
+        LocalDateTime start = from != null ? from : LocalDateTime.now();
+        LocalDateTime end = to != null ? to : start.plusDays(30);
+        if (!end.isAfter(start)) {
+            throw new IllegalArgumentException("End date must be after start date");
+        }
+        if (end.isAfter(start.plusDays(MAX_CALENDAR_DAYS))) {
+            throw new IllegalArgumentException("Date range cannot exceed " + MAX_CALENDAR_DAYS + " days");
+        }
+
+        return toolAvailabilityCalendar.freeWindows(toolId, start, end).stream()
+                .map(window -> new AvailabilityWindowResponse(window.start(), window.end()))
                 .collect(Collectors.toList());
     }
 
-    public ToolResponse updateTool(Long toolId, ToolRequest request, String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    public boolean isToolFree(Long toolId, LocalDateTime start, LocalDateTime end) {
+        if (!toolRepository.existsById(toolId)) {
+            throw new IllegalArgumentException("Tool not found");
+        }
+        if (!end.isAfter(start)) {
+            throw new IllegalArgumentException("End date must be after start date");
+        }
+        return toolAvailabilityCalendar.isFree(toolId, start, end);
+    }
 
+    // Served entirely from memory: no user lookup, no database round trip
+    public List<ToolSuggestionResponse> autocomplete(String prefix, int limit) {
+        return toolAutocompleteIndex.suggest(prefix, Math.max(1, Math.min(limit, MAX_SUGGESTIONS))).stream()
+                .map(suggestion -> new ToolSuggestionResponse(
+                        suggestion.text(),
+                        suggestion.type().name(),
+                        suggestion.weight()
+                ))
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<ToolResponse> getMyTools(Long userId) {
+        List<ToolRepository.ToolRow> tools = toolRepository.findToolRowsByOwnerId(userId);
+        Map<Long, List<String>> imageUrls = toolRepository.findImageUrlsByToolIds(
+                tools.stream().map(ToolRepository.ToolRow::getId).collect(Collectors.toList()));
+
+        return tools.stream()
+                .map(tool -> convertToResponse(tool, imageUrls, 0.0))
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public ToolResponse updateTool(Long toolId, ToolRequest request, Long userId) {
         Tool tool = toolRepository.findById(toolId)
                 .orElseThrow(() -> new IllegalArgumentException("Tool not found"));
 
-        if (!tool.getOwner().getId().equals(user.getId())) {
+        if (!tool.getOwner().getId().equals(userId)) {
             throw new IllegalArgumentException("You can only update your own tools");
         }
 
@@ -102,38 +310,151 @@ public class ToolService {
         tool.setIsFullyCharged(request.getIsFullyCharged());
 
         Tool updatedTool = toolRepository.save(tool);
+        toolIndexer.onToolSaved(updatedTool);
         return convertToResponse(updatedTool, 0.0);
     }
 
-    public void deleteTool(Long toolId, String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
+    @Transactional
+    public void deleteTool(Long toolId, Long userId) {
         Tool tool = toolRepository.findById(toolId)
                 .orElseThrow(() -> new IllegalArgumentException("Tool not found"));
 
-        if (!tool.getOwner().getId().equals(user.getId())) {
+        if (!tool.getOwner().getId().equals(userId)) {
             throw new IllegalArgumentException("You can only delete your own tools");
         }
 
         toolRepository.delete(tool);
+        toolIndexer.onToolDeleted(tool.getId());
     }
 
-    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        final double R = 6371.0; // Earth's radius in kilometers
+    private List<ToolGeoIndex.Hit> findNearestFromDatabase(UserDTO currentUser, Double maxDistance, ToolFilter filter,
+                                                           LocalDateTime availableFrom, LocalDateTime availableTo,
+                                                           int limit, ToolGeoIndex.Hit after) {
+        double latitude = currentUser.getLatitude();
+        double longitude = currentUser.getLongitude();
+
+        // Bounding box around the search circle so PostgreSQL can use idx_users_location
+        double minLat = -90.0, maxLat = 90.0, minLon = -180.0, maxLon = 180.0;
+        double radius = Double.MAX_VALUE;
+        if (maxDistance != null) {
+            double deltaLat = Math.toDegrees(maxDistance / EARTH_RADIUS_KM);
+            double cosLat = Math.cos(Math.toRadians(latitude));
+            double deltaLon = cosLat > 1e-6 ? deltaLat / cosLat : 360.0;
+
+            minLat = Math.max(-90.0, latitude - deltaLat);
+            maxLat = Math.min(90.0, latitude + deltaLat);
+            // Boxes crossing the antimeridian fall back to the full longitude range
+            if (longitude - deltaLon >= -180.0 && longitude + deltaLon <= 180.0) {
+                minLon = longitude - deltaLon;
+                maxLon = longitude + deltaLon;
+            }
+            radius = maxDistance;
+        }
+
+        double afterDistance = after != null ? after.distance() : -1.0;
+        long afterId = after != null ? after.toolId() : 0L;
+
+        return toolRepository.findAvailableToolIdsWithinRadius(
+                        currentUser.getId(), latitude, longitude, minLat, maxLat, minLon, maxLon, radius,
+                        filter.category(), filter.condition(), filter.rateType(),
+                        filter.minFee() != null ? filter.minFee() : 0.0,
+                        filter.maxFee() != null ? filter.maxFee() : Double.MAX_VALUE,
+                        availableFrom, availableTo, ToolAvailabilityCalendar.ACTIVE_STATUS_NAMES,
+                        afterDistance, afterId, limit)
+                .stream()
+                .map(row -> new ToolGeoIndex.Hit(row.getId(), row.getDistance()))
+                .collect(Collectors.toList());
+    }
 
-        double lat1Rad = Math.toRadians(lat1);
-        double lat2Rad = Math.toRadians(lat2);
-        double deltaLat = Math.toRadians(lat2 - lat1);
-        double deltaLon = Math.toRadians(lon2 - lon1);
+    // Both ends of a requested date range must be given together
+    private LongPredicate freeOnDates(LocalDateTime availableFrom, LocalDateTime availableTo) {
+        if ((availableFrom == null) != (availableTo == null)) {
+            throw new IllegalArgumentException("Both availableFrom and availableTo are required to filter by dates");
+        }
+        if (availableFrom != null && !availableTo.isAfter(availableFrom)) {
+            throw new IllegalArgumentException("End date must be after start date");
+        }
+        return toolAvailabilityCalendar.freeBetween(availableFrom, availableTo);
+    }
+
+    private List<ToolResponse> toResponsesInOrder(List<Long> toolIds, UserDTO currentUser) {
+        Map<Long, ToolRepository.ToolRow> toolsById = findToolRowsById(toolIds);
+        Map<Long, List<String>> imageUrls = toolRepository.findImageUrlsByToolIds(toolIds);
+
+        return toolIds.stream()
+                .map(toolsById::get)
+                .filter(tool -> tool != null && tool.getIsAvailable())
+                .map(tool -> convertToResponse(tool, imageUrls, calculateDistance(
+                        currentUser.getLatitude(), currentUser.getLongitude(),
+                        tool.getOwnerLatitude(), tool.getOwnerLongitude()
+                )))
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, ToolRepository.ToolRow> findToolRowsById(List<Long> toolIds) {
+        if (toolIds.isEmpty()) {
+            return Map.of();
+        }
+        return toolRepository.findToolRowsByIdIn(toolIds).stream()
+                .collect(Collectors.toMap(ToolRepository.ToolRow::getId, Function.identity()));
+    }
+
+    // Cursor is "<distance>:<toolId>" of the last tool on the previous page
+    private String encodeCursor(ToolGeoIndex.Hit hit) {
+        return hit.distance() + ":" + hit.toolId();
+    }
+
+    private ToolGeoIndex.Hit decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        ToolGeoIndex.Hit hit;
+        try {
+            int separator = cursor.lastIndexOf(':');
+            hit = new ToolGeoIndex.Hit(
+                    Long.parseLong(cursor.substring(separator + 1)),
+                    Double.parseDouble(cursor.substring(0, separator))
+            );
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        // NaN would sort after every tool and silently end the listing
+        if (!Double.isFinite(hit.distance()) || hit.distance() < 0) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return hit;
+    }
 
-        double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2) +
-                Math.cos(lat1Rad) * Math.cos(lat2Rad) *
-                        Math.sin(deltaLon / 2) * Math.sin(deltaLon / 2);
+    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
+        return ToolGeoIndex.distanceKm(lat1, lon1, lat2, lon2);
+    }
 
-        double c = 2 * Math.asin(Math.sqrt(a));
+    private ToolResponse convertToResponse(ToolRepository.ToolRow tool, Map<Long, List<String>> imageUrls,
+                                           double distance) {
+        OwnerDTO ownerDTO = new OwnerDTO(
+                tool.getOwnerId(),
+                tool.getOwnerFullName(),
+                tool.getOwnerRating(),
+                tool.getOwnerProfileImageUrl()
+        );
 
-        return R * c;
+        return new ToolResponse(
+                tool.getId(),
+                tool.getName(),
+                tool.getDescription(),
+                tool.getCategory(),
+                tool.getCondition(),
+                imageUrls.getOrDefault(tool.getId(), List.of()),
+                tool.getIsAvailable(),
+                tool.getRentalFee(),
+                tool.getRateType(),
+                tool.getIsFullyCharged(),
+                distance,
+                tool.getRating(),
+                tool.getTotalBorrows(),
+                ownerDTO,
+                tool.getCreatedAt()
+        );
     }
 
     private ToolResponse convertToResponse(Tool tool, double distance) {
@@ -0,0 +1,68 @@
+package com.toolmate.toolmate_api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.toolmate.toolmate_api.dto.response.UserDTO;
+import com.toolmate.toolmate_api.repository.UserRepository;
+import com.toolmate.toolmate_api.support.AfterCommit;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Read-through cache of public user profiles keyed by user id.
+ * Every write that changes a profile field (details, picture, rating, borrow/lend
+ * counters, deactivation) evicts the entry. Hit/miss/eviction counts are published
+ * as the "users.profiles" cache metrics.
+ */
+@Component
+public class UserProfileCache {
+
+    private final UserRepository userRepository;
+    private final Cache<Long, UserDTO> cache;
+
+    public UserProfileCache(UserRepository userRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${users.profile-cache.max-size:10000}") long maxSize,
+                            @Value("${users.profile-cache.ttl:10m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users.profiles");
+    }
+
+    /**
+     * Profile of the user, loading it on a miss. Callers get their own copy since UserDTO is mutable.
+     */
+    public Optional<UserDTO> get(Long userId) {
+        UserDTO profile = cache.get(userId, id -> userRepository.findProfileById(id).orElse(null));
+        return Optional.ofNullable(profile).map(UserProfileCache::copy);
+    }
+
+    public void evict(Long userId) {
+        AfterCommit.nowAndAfterCommit(() -> cache.invalidate(userId));
+    }
+
+    private static UserDTO copy(UserDTO profile) {
+        return new UserDTO(
+                profile.getId(),
+                profile.getFullName(),
+                profile.getEmail(),
+                profile.getPhoneNumber(),
+                profile.getLatitude(),
+                profile.getLongitude(),
+                profile.getAddress(),
+                profile.getProfileImageUrl(),
+                profile.getRating(),
+                profile.getTotalBorrows(),
+                profile.getTotalLends()
+        );
+    }
+}
@@ -5,6 +5,8 @@ import com.toolmate.toolmate_api.dto.request.UpdateProfileRequest;
 import com.toolmate.toolmate_api.dto.response.UserDTO;
 import com.toolmate.toolmate_api.entity.User;
 import com.toolmate.toolmate_api.repository.UserRepository;
+import com.toolmate.toolmate_api.search.ToolIndexer;
+import com.toolmate.toolmate_api.security.PrincipalCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -19,32 +21,35 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ToolIndexer toolIndexer;
+    private final PrincipalCache principalCache;
+    private final RefreshTokenService refreshTokenService;
+    private final UserProfileCache userProfileCache;
 
 
 //      Get current user's profile
 
-    public UserDTO getCurrentUserProfile(String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
+    @Transactional(readOnly = true)
+    public UserDTO getCurrentUserProfile(Long userId) {
+        return userProfileCache.get(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        return convertToDTO(user);
     }
 
 
 //     Get any user's profile by ID (for viewing other users)
 
+    @Transactional(readOnly = true)
     public UserDTO getUserProfileById(Long userId) {
-        User user = userRepository.findById(userId)
+        return userProfileCache.get(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        return convertToDTO(user);
     }
 
 
 //     Update current user's profile
 
     @Transactional
-    public UserDTO updateProfile(UpdateProfileRequest request, String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    public UserDTO updateProfile(UpdateProfileRequest request, Long userId) {
+        User user = userRepository.getReferenceById(userId);
 
         // Update only provided fields (null values will be ignored)
 
@@ -73,6 +78,13 @@ public class UserService {
         }
 
         User updatedUser = userRepository.save(user);
+        userProfileCache.evict(userId);
+
+        // Tools are located at their owner's address
+        if (request.getLatitude() != null || request.getLongitude() != null) {
+            toolIndexer.onOwnerMoved(updatedUser.getId(), updatedUser.getLatitude(), updatedUser.getLongitude());
+        }
+
         return convertToDTO(updatedUser);
     }
 
@@ -80,9 +92,8 @@ public class UserService {
 //     Change user password
 
     @Transactional
-    public void changePassword(ChangePasswordRequest request, String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    public void changePassword(ChangePasswordRequest request, Long userId) {
+        User user = userRepository.getReferenceById(userId);
 
         // Verify current password
         if (!passwordEncoder.matches(request.getCurrentPassword(), user.getPassword())) {
@@ -97,18 +108,20 @@ public class UserService {
         // Update password
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
         userRepository.save(user);
+        principalCache.evict(user.getEmail());
+        refreshTokenService.revokeAllForUser(userId);
     }
 
 
 //     Upload/Update profile picture
 
     @Transactional
-    public UserDTO updateProfilePicture(String imageUrl, String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    public UserDTO updateProfilePicture(String imageUrl, Long userId) {
+        User user = userRepository.getReferenceById(userId);
 
         user.setProfileImageUrl(imageUrl);
         User updatedUser = userRepository.save(user);
+        userProfileCache.evict(userId);
         return convertToDTO(updatedUser);
     }
 
@@ -116,13 +129,15 @@ public class UserService {
 //      Delete user account
 
     @Transactional
-    public void deleteAccount(String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    public void deleteAccount(Long userId) {
+        User user = userRepository.getReferenceById(userId);
 
         // Set user as inactive instead of deleting (soft delete)
         user.setIsActive(false);
         userRepository.save(user);
+        userProfileCache.evict(userId);
+        principalCache.evict(user.getEmail());
+        refreshTokenService.revokeAllForUser(userId);
 
         // Or completely delete:
         // userRepository.delete(user);
@@ -130,9 +145,8 @@ public class UserService {
 
 
     @Transactional
-    public void updateFcmToken(String fcmToken, String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    public void updateFcmToken(String fcmToken, Long userId) {
+        User user = userRepository.getReferenceById(userId);
 
         user.setFcmToken(fcmToken);
         userRepository.save(user);
@@ -0,0 +1,248 @@
+package com.toolmate.toolmate_api.push;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * State transitions of the breaker on a hand-stepped clock: tripping on the
+ * failure and slow-call rates, the open period, and the half-open trial.
+ */
+class CircuitBreakerTest {
+
+    private static final int WINDOW = 10;
+    private static final int MINIMUM_CALLS = 5;
+    private static final int FAILURE_RATE = 50;
+    private static final int SLOW_RATE = 50;
+    private static final Duration SLOW_CALL = Duration.ofSeconds(2);
+    private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+    private static final int HALF_OPEN_CALLS = 3;
+
+    private static final long FAST = Duration.ofMillis(100).toNanos();
+    private static final long SLOW = SLOW_CALL.toNanos();
+
+    private final AtomicLong now = new AtomicLong(Duration.ofHours(1).toNanos());
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void createBreaker() {
+        breaker = new CircuitBreaker("test", WINDOW, MINIMUM_CALLS, FAILURE_RATE, SLOW_RATE,
+                SLOW_CALL, OPEN_DURATION, HALF_OPEN_CALLS, now::get);
+    }
+
+    // ========== CLOSED ==========
+
+    @Test
+    void opensWhenFailureRateReachesThreshold() {
+        breaker.onSuccess(FAST);
+        breaker.onSuccess(FAST);
+        breaker.onFailure(FAST);
+        breaker.onFailure(FAST);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        breaker.onFailure(FAST);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void opensWhenSlowRateReachesThreshold() {
+        breaker.onSuccess(FAST);
+        breaker.onSuccess(FAST);
+        breaker.onSuccess(SLOW);
+        breaker.onSuccess(SLOW);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        breaker.onSuccess(SLOW);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        for (int i = 0; i < MINIMUM_CALLS - 1; i++) {
+            breaker.onFailure(SLOW);
+        }
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void staysClosedBelowFailureRate() {
+        for (int i = 0; i < WINDOW * 3; i++) {
+            if (i % 3 == 0) {
+                breaker.onFailure(FAST);
+            } else {
+                breaker.onSuccess(FAST);
+            }
+        }
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void forgetsOutcomesThatLeftTheWindow() {
+        calls(6, false);
+        calls(4, true);
+        calls(WINDOW, false);
+
+        // The first four failures have left the window, so four fresh ones stay below half
+        calls(4, true);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        calls(1, true);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    // ========== OPEN ==========
+
+    @Test
+    void refusesCallsUntilOpenDurationElapses() {
+        trip();
+        assertThat(breaker.remainingOpen()).isEqualTo(OPEN_DURATION);
+
+        advance(OPEN_DURATION.minusMillis(1));
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.remainingOpen()).isEqualTo(Duration.ofMillis(1));
+
+        advance(Duration.ofMillis(1));
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.remainingOpen()).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    void ignoresOutcomesReportedWhileOpen() {
+        trip();
+
+        // Calls that started before it opened: successes must not close it,
+        // failures must not count toward the next window
+        for (int i = 0; i < WINDOW; i++) {
+            breaker.onSuccess(FAST);
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        for (int i = 0; i < WINDOW; i++) {
+            breaker.onFailure(FAST);
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        closeThroughTrial();
+        for (int i = 0; i < MINIMUM_CALLS - 1; i++) {
+            breaker.onFailure(FAST);
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    // ========== HALF-OPEN ==========
+
+    @Test
+    void halfOpenHandsOutExactlyTheTrialPermits() {
+        tripAndWait();
+
+        for (int i = 0; i < HALF_OPEN_CALLS; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+        }
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+    }
+
+    @Test
+    void halfOpenClosesOnlyWhenEveryTrialSucceeds() {
+        tripAndWait();
+        for (int i = 0; i < HALF_OPEN_CALLS; i++) {
+            breaker.tryAcquire();
+        }
+
+        for (int i = 0; i < HALF_OPEN_CALLS - 1; i++) {
+            breaker.onSuccess(FAST);
+            assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        }
+        breaker.onSuccess(FAST);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void halfOpenReopensOnAnyFailure() {
+        tripAndWait();
+        for (int i = 0; i < HALF_OPEN_CALLS; i++) {
+            breaker.tryAcquire();
+        }
+        breaker.onSuccess(FAST);
+        breaker.onSuccess(FAST);
+
+        breaker.onFailure(FAST);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.remainingOpen()).isEqualTo(OPEN_DURATION);
+    }
+
+    @Test
+    void halfOpenReopensOnSlowTrial() {
+        tripAndWait();
+        breaker.tryAcquire();
+
+        breaker.onSuccess(SLOW);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void reopenedBreakerGrantsFreshPermitsAfterTheNextOpenPeriod() {
+        tripAndWait();
+        breaker.tryAcquire();
+        breaker.onFailure(FAST);
+
+        advance(OPEN_DURATION);
+
+        for (int i = 0; i < HALF_OPEN_CALLS; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+        }
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    // ========== FIXTURES ==========
+
+    private void trip() {
+        for (int i = 0; i < MINIMUM_CALLS; i++) {
+            breaker.onFailure(FAST);
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    private void tripAndWait() {
+        trip();
+        advance(OPEN_DURATION);
+    }
+
+    private void closeThroughTrial() {
+        advance(OPEN_DURATION);
+        for (int i = 0; i < HALF_OPEN_CALLS; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onSuccess(FAST);
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private void calls(int count, boolean failing) {
+        for (int i = 0; i < count; i++) {
+            if (failing) {
+                breaker.onFailure(FAST);
+            } else {
+                breaker.onSuccess(FAST);
+            }
+        }
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+}
@@ -0,0 +1,88 @@
+package com.toolmate.toolmate_api.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token verifications per second: the old path (signing key rebuilt and the token
+ * parsed three times per request) against a single parse with the cached parser,
+ * and against the verified-token cache.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.toolmate.toolmate_api.security.JwtVerificationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "YourSuperSecretKeyThatIsAtLeast256BitsLongForHS256AlgorithmSecurityPurposes";
+    private static final String EMAIL = "benchmark@toolmate.test";
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(new SimpleMeterRegistry(), SECRET, 86400000L, 10000, Duration.ofMinutes(1));
+        token = jwtUtil.generateToken(42L, EMAIL, AuthenticatedUser.ROLE_USER, UUID.randomUUID().toString());
+    }
+
+    /**
+     * What the filter used to do: extractUsername, then validateToken
+     * (extractUsername + extractExpiration), each rebuilding the key and parser
+     */
+    @Benchmark
+    public boolean tripleParse() {
+        String username = legacyClaims().getSubject();
+        boolean valid = legacyClaims().getSubject().equals(username)
+                && !legacyClaims().getExpiration().before(new Date());
+        return valid;
+    }
+
+    @Benchmark
+    public AuthenticatedUser singleParse() {
+        return jwtUtil.toAuthenticatedUser(jwtUtil.extractAllClaims(token));
+    }
+
+    @Benchmark
+    public AuthenticatedUser cachedVerify() {
+        return jwtUtil.toAuthenticatedUser(jwtUtil.verify(token));
+    }
+
+    private Claims legacyClaims() {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
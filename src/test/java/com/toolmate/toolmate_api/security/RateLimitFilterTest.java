@@ -0,0 +1,228 @@
+package com.toolmate.toolmate_api.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.toolmate.toolmate_api.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * GCRA buckets driven by a hand-stepped clock: the burst, the Retry-After of a
+ * refused request, the refill, idle eviction, and which rule and key apply.
+ */
+class RateLimitFilterTest {
+
+    private static final String LOGIN = "/api/auth/login";
+    private static final String TOOLS = "/api/tools";
+    private static final String IP = "10.0.0.1";
+    private static final String OTHER_IP = "10.0.0.2";
+    // 5 requests at once, then one every 10 seconds
+    private static final int LOGIN_CAPACITY = 5;
+    private static final int LOGIN_REFILL = 6;
+    private static final long LOGIN_INTERVAL_SECONDS = 10;
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RateLimitProperties properties;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void createFilter() {
+        properties = new RateLimitProperties();
+        properties.setIdleTimeout(Duration.ofMinutes(10));
+        properties.setRules(List.of(
+                rule("login", "/api/auth/login", List.of("POST"), LOGIN_CAPACITY, LOGIN_REFILL),
+                rule("api", "/api/**", List.of(), 2, 60)
+        ));
+
+        filter = new RateLimitFilter(properties, new ObjectMapper().findAndRegisterModules(), meterRegistry);
+        ReflectionTestUtils.setField(filter, "nanoClock", (LongSupplier) now::get);
+    }
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    // ========== BURST AND REFILL ==========
+
+    @Test
+    void allowsBurstUpToCapacity() throws Exception {
+        for (int i = 0; i < LOGIN_CAPACITY; i++) {
+            assertThat(send("POST", LOGIN, IP).getStatus()).isEqualTo(200);
+        }
+    }
+
+    @Test
+    void refusesNextRequestWithRetryAfter() throws Exception {
+        exhaustLogin();
+
+        MockHttpServletResponse refused = send("POST", LOGIN, IP);
+
+        assertThat(refused.getStatus()).isEqualTo(429);
+        assertThat(refused.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo(String.valueOf(LOGIN_INTERVAL_SECONDS));
+        assertThat(refused.getContentAsString()).contains("Too many requests");
+        assertThat(meterRegistry.counter("http.rate_limited", "rule", "login").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void retryAfterCountsDownAndRoundsUp() throws Exception {
+        exhaustLogin();
+
+        advance(Duration.ofMillis(2500));
+
+        assertThat(send("POST", LOGIN, IP).getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("8");
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() throws Exception {
+        exhaustLogin();
+
+        advance(Duration.ofSeconds(LOGIN_INTERVAL_SECONDS));
+
+        assertThat(send("POST", LOGIN, IP).getStatus()).isEqualTo(200);
+        assertThat(send("POST", LOGIN, IP).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void refillsWholeBurstAfterCapacityIntervals() throws Exception {
+        exhaustLogin();
+
+        advance(Duration.ofSeconds(LOGIN_INTERVAL_SECONDS * LOGIN_CAPACITY));
+
+        exhaustLogin();
+        assertThat(send("POST", LOGIN, IP).getStatus()).isEqualTo(429);
+    }
+
+    // ========== IDLE EVICTION ==========
+
+    @Test
+    void keepsBucketsThatAreStillRefilling() throws Exception {
+        exhaustLogin();
+
+        advance(Duration.ofMinutes(10));
+        filter.evictIdleBuckets();
+
+        assertThat(buckets()).hasSize(1);
+    }
+
+    @Test
+    void evictsBucketsIdlePastTheTimeoutOnceFull() throws Exception {
+        exhaustLogin();
+        send("GET", TOOLS, OTHER_IP);
+
+        // The login bucket is full again 50s after the burst, then idles for the timeout
+        advance(Duration.ofSeconds(LOGIN_INTERVAL_SECONDS * LOGIN_CAPACITY).plusMinutes(10).plusNanos(1));
+        send("GET", TOOLS, OTHER_IP);
+        filter.evictIdleBuckets();
+
+        assertThat(buckets()).containsOnlyKeys("1:ip:" + OTHER_IP);
+    }
+
+    // ========== RULES AND KEYS ==========
+
+    @Test
+    void firstMatchingRuleApplies() throws Exception {
+        exhaustLogin();
+
+        // /api/** would still allow it, but the login rule matched first
+        assertThat(send("POST", LOGIN, IP).getStatus()).isEqualTo(429);
+        // A GET does not match the POST-only login rule and falls through to /api/**
+        assertThat(send("GET", LOGIN, IP).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void requestsMatchingNoRuleAreNotLimited() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertThat(send("GET", "/ws/info", IP).getStatus()).isEqualTo(200);
+        }
+        assertThat(buckets()).isEmpty();
+    }
+
+    @Test
+    void anonymousRequestsAreLimitedPerIp() throws Exception {
+        exhaustLogin();
+
+        assertThat(send("POST", LOGIN, OTHER_IP).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void authenticatedRequestsAreLimitedPerUserAcrossIps() throws Exception {
+        authenticateAs(42L);
+
+        assertThat(send("GET", TOOLS, IP).getStatus()).isEqualTo(200);
+        assertThat(send("GET", TOOLS, OTHER_IP).getStatus()).isEqualTo(200);
+        assertThat(send("GET", TOOLS, "10.0.0.3").getStatus()).isEqualTo(429);
+
+        authenticateAs(43L);
+        assertThat(send("GET", TOOLS, IP).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void disabledFilterLetsEverythingThrough() throws Exception {
+        properties.setEnabled(false);
+
+        for (int i = 0; i < LOGIN_CAPACITY * 2; i++) {
+            assertThat(send("POST", LOGIN, IP).getStatus()).isEqualTo(200);
+        }
+    }
+
+    // ========== FIXTURES ==========
+
+    private void exhaustLogin() throws Exception {
+        for (int i = 0; i < LOGIN_CAPACITY; i++) {
+            assertThat(send("POST", LOGIN, IP).getStatus()).isEqualTo(200);
+        }
+    }
+
+    private MockHttpServletResponse send(String method, String uri, String remoteAddr) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+
+    private void authenticateAs(Long userId) {
+        AuthenticatedUser user = new AuthenticatedUser(userId, "user" + userId + "@example.com", AuthenticatedUser.ROLE_USER);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ?> buckets() {
+        return (Map<String, ?>) ReflectionTestUtils.getField(filter, "buckets");
+    }
+
+    private static RateLimitProperties.Rule rule(String name, String pattern, List<String> methods,
+                                                 int capacity, int refill) {
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setName(name);
+        rule.setPattern(pattern);
+        rule.setMethods(methods);
+        rule.setCapacity(capacity);
+        rule.setRefill(refill);
+        return rule;
+    }
+}
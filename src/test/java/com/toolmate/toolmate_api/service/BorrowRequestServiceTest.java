@@ -0,0 +1,338 @@
+package com.toolmate.toolmate_api.service;
+
+import com.toolmate.toolmate_api.dto.response.BorrowRequestResponse;
+import com.toolmate.toolmate_api.entity.BorrowRequest;
+import com.toolmate.toolmate_api.entity.BorrowRequestStatus;
+import com.toolmate.toolmate_api.entity.NotificationType;
+import com.toolmate.toolmate_api.entity.Tool;
+import com.toolmate.toolmate_api.entity.User;
+import com.toolmate.toolmate_api.repository.BorrowRequestRepository;
+import com.toolmate.toolmate_api.repository.StatusHistoryRepository;
+import com.toolmate.toolmate_api.repository.ToolRepository;
+import com.toolmate.toolmate_api.repository.UserRepository;
+import com.toolmate.toolmate_api.search.ToolAvailabilityCalendar;
+import com.toolmate.toolmate_api.search.ToolIndexer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The borrow lifecycle as driven by BorrowTransition: who may take each step,
+ * from which states, and what happens besides the status change.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BorrowRequestServiceTest {
+
+    private static final Long OWNER_ID = 1L;
+    private static final Long BORROWER_ID = 2L;
+    private static final Long STRANGER_ID = 3L;
+    private static final Long TOOL_ID = 10L;
+    private static final Long REQUEST_ID = 100L;
+
+    @Mock
+    private BorrowRequestRepository borrowRequestRepository;
+    @Mock
+    private ToolRepository toolRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private UserProfileCache userProfileCache;
+    @Mock
+    private StatusHistoryRepository statusHistoryRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private ToolIndexer toolIndexer;
+    @Mock
+    private ToolAvailabilityCalendar toolAvailabilityCalendar;
+    @Mock
+    private OptimisticRetry optimisticRetry;
+
+    @InjectMocks
+    private BorrowRequestService borrowRequestService;
+
+    @BeforeEach
+    void runAttemptsInline() {
+        when(optimisticRetry.execute(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+    }
+
+    // ========== ACCEPT ==========
+
+    @Test
+    void ownerAcceptsPendingRequest() {
+        BorrowRequest request = requestIn(BorrowRequestStatus.PENDING);
+        noOverlap();
+
+        BorrowRequestResponse response = borrowRequestService.acceptRequest(REQUEST_ID, OWNER_ID);
+
+        assertThat(response.getStatus()).isEqualTo("ACCEPTED");
+        verify(toolAvailabilityCalendar).onBooked(request);
+        verify(eventPublisher).publishEvent(any(BorrowLifecycleEvent.class));
+    }
+
+    @Test
+    void acceptDoesNotCountTheRequestItselfAsOverlapping() {
+        requestIn(BorrowRequestStatus.PENDING);
+        noOverlap();
+
+        borrowRequestService.acceptRequest(REQUEST_ID, OWNER_ID);
+
+        verify(borrowRequestRepository).existsOverlappingBooking(
+                eq(TOOL_ID), eq(REQUEST_ID), anyCollection(), any(), any());
+    }
+
+    @Test
+    void acceptRejectsOverlappingBooking() {
+        BorrowRequest request = requestIn(BorrowRequestStatus.PENDING);
+        when(borrowRequestRepository.existsOverlappingBooking(
+                eq(TOOL_ID), eq(REQUEST_ID), anyCollection(), any(), any())).thenReturn(true);
+
+        assertThatThrownBy(() -> borrowRequestService.acceptRequest(REQUEST_ID, OWNER_ID))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Tool is already booked for the selected dates");
+        verify(toolAvailabilityCalendar, never()).onBooked(request);
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void onlyOwnerMayAccept() {
+        requestIn(BorrowRequestStatus.PENDING);
+
+        assertThatThrownBy(() -> borrowRequestService.acceptRequest(REQUEST_ID, BORROWER_ID))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Only the tool owner can accept this request");
+        assertThatThrownBy(() -> borrowRequestService.acceptRequest(REQUEST_ID, STRANGER_ID))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Only the tool owner can accept this request");
+    }
+
+    @Test
+    void acceptOnlyFromPending() {
+        requestIn(BorrowRequestStatus.ACCEPTED);
+
+        assertThatThrownBy(() -> borrowRequestService.acceptRequest(REQUEST_ID, OWNER_ID))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Can only accept pending requests");
+    }
+
+    // ========== COLLECT ==========
+
+    @Test
+    void borrowerCollectsAcceptedRequest() {
+        BorrowRequest request = requestIn(BorrowRequestStatus.ACCEPTED);
+
+        BorrowRequestResponse response = borrowRequestService.confirmCollected(REQUEST_ID, BORROWER_ID);
+
+        assertThat(response.getStatus()).isEqualTo("COLLECTED");
+        assertThat(request.getCollectedAt()).isNotNull();
+        assertThat(request.getTool().getIsAvailable()).isFalse();
+        verify(toolIndexer).onAvailabilityChanged(request.getTool());
+        assertPublished(NotificationType.TOOL_COLLECTED, BORROWER_ID);
+    }
+
+    @Test
+    void onlyBorrowerMayCollect() {
+        requestIn(BorrowRequestStatus.ACCEPTED);
+
+        assertThatThrownBy(() -> borrowRequestService.confirmCollected(REQUEST_ID, OWNER_ID))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Only the borrower can confirm collection");
+    }
+
+    @Test
+    void collectOnlyFromAccepted() {
+        requestIn(BorrowRequestStatus.PENDING);
+
+        assertThatThrownBy(() -> borrowRequestService.confirmCollected(REQUEST_ID, BORROWER_ID))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Can only collect accepted requests");
+    }
+
+    // ========== RETURN ==========
+
+    @Test
+    void borrowerReturnsCollectedTool() {
+        BorrowRequest request = requestIn(BorrowRequestStatus.COLLECTED);
+
+        BorrowRequestResponse response = borrowRequestService.confirmReturned(REQUEST_ID, BORROWER_ID);
+
+        assertThat(response.getStatus()).isEqualTo("RETURNED");
+        assertThat(request.getReturnedAt()).isNotNull();
+        // Still with the owner for inspection, not relisted yet
+        assertThat(request.getTool().getIsAvailable()).isFalse();
+        assertPublished(NotificationType.TOOL_RETURNED, BORROWER_ID);
+    }
+
+    @Test
+    void onlyBorrowerMayReturn() {
+        requestIn(BorrowRequestStatus.COLLECTED);
+
+        assertThatThrownBy(() -> borrowRequestService.confirmReturned(REQUEST_ID, OWNER_ID))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Only the borrower can confirm return");
+    }
+
+    @Test
+    void returnOnlyFromCollected() {
+        requestIn(BorrowRequestStatus.ACCEPTED);
+
+        assertThatThrownBy(() -> borrowRequestService.confirmReturned(REQUEST_ID, BORROWER_ID))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Can only return collected tools");
+    }
+
+    // ========== COMPLETE ==========
+
+    @Test
+    void ownerCompletesReturnedRequest() {
+        BorrowRequest request = requestIn(BorrowRequestStatus.RETURNED);
+        Tool tool = request.getTool();
+
+        BorrowRequestResponse response = borrowRequestService.confirmReceipt(REQUEST_ID, OWNER_ID);
+
+        assertThat(response.getStatus()).isEqualTo("COMPLETED");
+        assertThat(request.getCompletedAt()).isNotNull();
+        assertThat(tool.getIsAvailable()).isTrue();
+        verify(toolAvailabilityCalendar).onReleased(REQUEST_ID);
+        verify(toolRepository).incrementTotalBorrows(TOOL_ID);
+        verify(userRepository).incrementTotalBorrows(BORROWER_ID);
+        verify(userRepository).incrementTotalLends(OWNER_ID);
+        assertThat(tool.getTotalBorrows()).isEqualTo(1);
+        assertThat(request.getBorrower().getTotalBorrows()).isEqualTo(1);
+        assertThat(tool.getOwner().getTotalLends()).isEqualTo(1);
+        verify(userProfileCache).evict(BORROWER_ID);
+        verify(userProfileCache).evict(OWNER_ID);
+        assertPublished(NotificationType.TRANSACTION_COMPLETED, OWNER_ID);
+    }
+
+    @Test
+    void onlyOwnerMayComplete() {
+        requestIn(BorrowRequestStatus.RETURNED);
+
+        assertThatThrownBy(() -> borrowRequestService.confirmReceipt(REQUEST_ID, BORROWER_ID))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Only the tool owner can confirm receipt");
+        verify(userRepository, never()).incrementTotalLends(any());
+    }
+
+    @Test
+    void completeOnlyFromReturned() {
+        requestIn(BorrowRequestStatus.COLLECTED);
+
+        assertThatThrownBy(() -> borrowRequestService.confirmReceipt(REQUEST_ID, OWNER_ID))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Can only confirm receipt of returned tools");
+    }
+
+    // ========== CANCEL ==========
+
+    @Test
+    void borrowerCancelsWhileHoldingTheTool() {
+        BorrowRequest request = requestIn(BorrowRequestStatus.COLLECTED);
+
+        BorrowRequestResponse response = borrowRequestService.cancelRequest(REQUEST_ID, BORROWER_ID, "Plans changed");
+
+        assertThat(response.getStatus()).isEqualTo("CANCELLED");
+        assertThat(request.getTool().getIsAvailable()).isTrue();
+        verify(toolAvailabilityCalendar).onReleased(REQUEST_ID);
+        verify(toolIndexer).onAvailabilityChanged(request.getTool());
+        assertPublished(NotificationType.REQUEST_CANCELLED, BORROWER_ID);
+    }
+
+    @Test
+    void ownerCancelsPendingRequestWithoutTouchingTheTool() {
+        BorrowRequest request = requestIn(BorrowRequestStatus.PENDING);
+
+        borrowRequestService.cancelRequest(REQUEST_ID, OWNER_ID, null);
+
+        assertThat(request.getStatus()).isEqualTo(BorrowRequestStatus.CANCELLED);
+        verify(toolAvailabilityCalendar, never()).onReleased(any());
+        verify(toolIndexer, never()).onAvailabilityChanged(any());
+        assertPublished(NotificationType.REQUEST_CANCELLED, OWNER_ID);
+    }
+
+    @Test
+    void strangerCannotCancel() {
+        requestIn(BorrowRequestStatus.PENDING);
+
+        assertThatThrownBy(() -> borrowRequestService.cancelRequest(REQUEST_ID, STRANGER_ID, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("You cannot cancel this request");
+    }
+
+    @Test
+    void cancelOnlyWhileOpen() {
+        requestIn(BorrowRequestStatus.COMPLETED);
+
+        assertThatThrownBy(() -> borrowRequestService.cancelRequest(REQUEST_ID, BORROWER_ID, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Can only cancel requests that are still open");
+        verify(statusHistoryRepository, never()).save(any());
+    }
+
+    // ========== FIXTURES ==========
+
+    private void assertPublished(NotificationType type, Long actorId) {
+        ArgumentCaptor<BorrowLifecycleEvent> event = ArgumentCaptor.forClass(BorrowLifecycleEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().type()).isEqualTo(type);
+        assertThat(event.getValue().borrowRequestId()).isEqualTo(REQUEST_ID);
+        assertThat(event.getValue().actorId()).isEqualTo(actorId);
+        verify(statusHistoryRepository).save(any());
+    }
+
+    private BorrowRequest requestIn(BorrowRequestStatus status) {
+        User owner = user(OWNER_ID, "Olivia Owner");
+        User borrower = user(BORROWER_ID, "Ben Borrower");
+
+        Tool tool = new Tool();
+        tool.setId(TOOL_ID);
+        tool.setName("Cordless drill");
+        tool.setOwner(owner);
+        tool.setIsAvailable(!BorrowTransition.TOOL_OUT.contains(status));
+
+        BorrowRequest request = new BorrowRequest();
+        request.setId(REQUEST_ID);
+        request.setTool(tool);
+        request.setBorrower(borrower);
+        request.setStartDate(LocalDateTime.now().plusDays(1));
+        request.setEndDate(LocalDateTime.now().plusDays(3));
+        request.setStatus(status);
+
+        when(borrowRequestRepository.findForTransition(REQUEST_ID)).thenReturn(Optional.of(request));
+        return request;
+    }
+
+    private void noOverlap() {
+        when(borrowRequestRepository.existsOverlappingBooking(any(), any(), anyCollection(), any(), any()))
+                .thenReturn(false);
+    }
+
+    private static User user(Long id, String fullName) {
+        User user = new User();
+        user.setId(id);
+        user.setFullName(fullName);
+        return user;
+    }
+}
@@ -0,0 +1,306 @@
+package com.toolmate.toolmate_api.service;
+
+import com.toolmate.toolmate_api.entity.BorrowRequest;
+import com.toolmate.toolmate_api.entity.Notification;
+import com.toolmate.toolmate_api.entity.NotificationType;
+import com.toolmate.toolmate_api.entity.OutboxEvent;
+import com.toolmate.toolmate_api.repository.BorrowRequestRepository;
+import com.toolmate.toolmate_api.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The outbox relay against a fake table with real commit and rollback: rows
+ * handed out by the repository are copies that only reach the table when their
+ * transaction commits, and inserted notifications only count once committed.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class NotificationOutboxRelayTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final Duration RETRY_BACKOFF = Duration.ofSeconds(5);
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+    @Mock
+    private BorrowRequestRepository borrowRequestRepository;
+    @Mock
+    private NotificationService notificationService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private NotificationOutboxRelay relay;
+
+    private final Map<Long, OutboxEvent> table = new TreeMap<>();
+    private final List<OutboxEvent> attached = new ArrayList<>();
+    private final List<Notification> inserted = new ArrayList<>();
+    private final List<Notification> committed = new ArrayList<>();
+    private final List<Notification> delivered = new ArrayList<>();
+    private final Set<Long> deletedRequests = new HashSet<>();
+    private final Set<Long> failingInserts = new HashSet<>();
+    private final Set<Long> failingExpands = new HashSet<>();
+
+    @BeforeEach
+    void fakeOutboxTable() {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        doAnswer(invocation -> {
+            attached.forEach(event -> table.put(event.getId(), event));
+            committed.addAll(inserted);
+            attached.clear();
+            inserted.clear();
+            return null;
+        }).when(transactionManager).commit(any());
+        doAnswer(invocation -> {
+            attached.clear();
+            inserted.clear();
+            return null;
+        }).when(transactionManager).rollback(any());
+
+        when(outboxEventRepository.claimPending(any(), anyInt())).thenAnswer(invocation -> table.values().stream()
+                .filter(event -> isDue(event, invocation.getArgument(0)))
+                .limit(invocation.<Integer>getArgument(1))
+                .map(this::attach)
+                .toList());
+        when(outboxEventRepository.claimPendingById(anyLong())).thenAnswer(invocation ->
+                Optional.ofNullable(table.get(invocation.<Long>getArgument(0)))
+                        .filter(event -> event.getProcessedAt() == null)
+                        .map(this::attach));
+        when(outboxEventRepository.findById(anyLong())).thenAnswer(invocation ->
+                Optional.ofNullable(table.get(invocation.<Long>getArgument(0))).map(this::attach));
+
+        when(borrowRequestRepository.findAllForTransition(anyCollection())).thenAnswer(invocation ->
+                invocation.<Collection<Long>>getArgument(0).stream()
+                        .filter(id -> !deletedRequests.contains(id))
+                        .map(NotificationOutboxRelayTest::borrowRequest)
+                        .toList());
+
+        when(notificationService.expand(any(), any())).thenAnswer(invocation -> {
+            OutboxEvent event = invocation.getArgument(0);
+            if (failingExpands.contains(event.getId())) {
+                throw new IllegalStateException("expand failed for " + event.getId());
+            }
+            return List.of(notificationFor(event));
+        });
+        doAnswer(invocation -> {
+            List<Notification> notifications = invocation.getArgument(0);
+            if (notifications.stream().anyMatch(notification -> failingInserts.contains(notification.getRelatedId()))) {
+                throw new DataIntegrityViolationException("value too long for type character varying(255)");
+            }
+            inserted.addAll(notifications);
+            return null;
+        }).when(notificationService).insertAll(anyList());
+        doAnswer(invocation -> delivered.addAll(invocation.getArgument(0)))
+                .when(notificationService).deliver(anyList());
+
+        relay = new NotificationOutboxRelay(outboxEventRepository, borrowRequestRepository, notificationService,
+                transactionManager, new SimpleMeterRegistry(), 100, MAX_ATTEMPTS, RETRY_BACKOFF, Duration.ofDays(7));
+    }
+
+    // ========== BATCH ==========
+
+    @Test
+    void relaysWholeBatchInOneInsert() {
+        pending(1L, 2L, 3L);
+
+        int claimed = relay.relayBatch();
+
+        assertThat(claimed).isEqualTo(3);
+        assertThat(table.values()).allSatisfy(event -> assertThat(event.getProcessedAt()).isNotNull());
+        assertThat(relatedIds(delivered)).containsExactly(1L, 2L, 3L);
+        verify(notificationService, times(1)).insertAll(anyList());
+    }
+
+    @Test
+    void eventForDeletedRequestIsDroppedWithoutNotifications() {
+        pending(1L, 2L);
+        deletedRequests.add(2L);
+
+        relay.relayBatch();
+
+        assertThat(table.get(2L).getProcessedAt()).isNotNull();
+        assertThat(table.get(2L).getLastError()).isEqualTo("Borrow request no longer exists");
+        assertThat(relatedIds(delivered)).containsExactly(1L);
+    }
+
+    // ========== ISOLATION ==========
+
+    @Test
+    void failingInsertDoesNotBlockTheRestOfItsBatch() {
+        pending(1L, 2L, 3L);
+        failingInserts.add(2L);
+
+        int claimed = relay.relayBatch();
+
+        assertThat(claimed).isEqualTo(3);
+        assertThat(table.get(1L).getProcessedAt()).isNotNull();
+        assertThat(table.get(3L).getProcessedAt()).isNotNull();
+        assertThat(table.get(2L).getProcessedAt()).isNull();
+        assertThat(table.get(2L).getAttempts()).isEqualTo(1);
+        assertThat(table.get(2L).getLastError()).contains("value too long");
+        assertThat(relatedIds(committed)).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void failingExpandIsRetriedWithoutRollingBackTheBatch() {
+        pending(1L, 2L, 3L);
+        failingExpands.add(2L);
+
+        relay.relayBatch();
+
+        assertThat(table.get(2L).getProcessedAt()).isNull();
+        assertThat(table.get(2L).getAttempts()).isEqualTo(1);
+        assertThat(table.get(2L).getLastError()).contains("expand failed for 2");
+        assertThat(relatedIds(committed)).containsExactly(1L, 3L);
+        verify(notificationService, times(1)).insertAll(anyList());
+    }
+
+    // ========== RETRY ==========
+
+    @Test
+    void failingEventBacksOffUntilMaxAttempts() {
+        pending(1L);
+        failingInserts.add(1L);
+
+        assertRetriedAfter(1, RETRY_BACKOFF);
+        assertThat(relay.relayBatch()).as("not due yet").isZero();
+
+        makeDue(1L);
+        assertRetriedAfter(2, RETRY_BACKOFF.multipliedBy(2));
+
+        makeDue(1L);
+        relay.relayBatch();
+        OutboxEvent event = table.get(1L);
+        assertThat(event.getAttempts()).isEqualTo(MAX_ATTEMPTS);
+        assertThat(event.getProcessedAt()).as("given up").isNotNull();
+        assertThat(event.getLastError()).contains("value too long");
+
+        makeDue(1L);
+        assertThat(relay.relayBatch()).isZero();
+    }
+
+    // ========== DELIVERY ==========
+
+    @Test
+    void deliversOnlyCommittedNotifications() {
+        pending(1L, 2L, 3L, 4L);
+        failingInserts.add(2L);
+        failingInserts.add(4L);
+
+        relay.relayBatch();
+
+        assertThat(relatedIds(delivered)).containsExactly(1L, 3L);
+        assertThat(delivered).allSatisfy(notification -> assertThat(committed).contains(notification));
+    }
+
+    @Test
+    void deliversNothingWhenEveryEventFails() {
+        pending(1L, 2L);
+        failingInserts.add(1L);
+        failingInserts.add(2L);
+
+        relay.relayBatch();
+
+        assertThat(committed).isEmpty();
+        assertThat(delivered).isEmpty();
+    }
+
+    // ========== FIXTURES ==========
+
+    private void assertRetriedAfter(int attempts, Duration delay) {
+        LocalDateTime before = LocalDateTime.now();
+        relay.relayBatch();
+        LocalDateTime after = LocalDateTime.now();
+
+        OutboxEvent event = table.get(1L);
+        assertThat(event.getAttempts()).isEqualTo(attempts);
+        assertThat(event.getProcessedAt()).isNull();
+        assertThat(event.getNextAttemptAt()).isBetween(before.plus(delay), after.plus(delay));
+        assertThat(delivered).isEmpty();
+    }
+
+    // Outbox events reuse the borrow request id as their own, one event per request
+    private void pending(Long... ids) {
+        for (Long id : ids) {
+            OutboxEvent event = new OutboxEvent();
+            event.setId(id);
+            event.setType(NotificationType.REQUEST_RECEIVED);
+            event.setBorrowRequestId(id);
+            event.setActorId(100L);
+            event.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+            table.put(id, event);
+        }
+    }
+
+    private void makeDue(Long id) {
+        table.get(id).setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+    }
+
+    private OutboxEvent attach(OutboxEvent row) {
+        OutboxEvent copy = new OutboxEvent();
+        copy.setId(row.getId());
+        copy.setType(row.getType());
+        copy.setBorrowRequestId(row.getBorrowRequestId());
+        copy.setActorId(row.getActorId());
+        copy.setCreatedAt(row.getCreatedAt());
+        copy.setNextAttemptAt(row.getNextAttemptAt());
+        copy.setAttempts(row.getAttempts());
+        copy.setLastError(row.getLastError());
+        copy.setProcessedAt(row.getProcessedAt());
+        attached.add(copy);
+        return copy;
+    }
+
+    private static boolean isDue(OutboxEvent event, LocalDateTime now) {
+        return event.getProcessedAt() == null && !event.getNextAttemptAt().isAfter(now);
+    }
+
+    private static List<Long> relatedIds(List<Notification> notifications) {
+        return notifications.stream().map(Notification::getRelatedId).toList();
+    }
+
+    private static Notification notificationFor(OutboxEvent event) {
+        return Notification.builder()
+                .type(event.getType())
+                .title(event.getType().name())
+                .relatedId(event.getBorrowRequestId())
+                .build();
+    }
+
+    private static BorrowRequest borrowRequest(Long id) {
+        BorrowRequest request = new BorrowRequest();
+        request.setId(id);
+        return request;
+    }
+}
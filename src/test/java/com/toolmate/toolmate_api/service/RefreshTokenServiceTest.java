@@ -0,0 +1,265 @@
+package com.toolmate.toolmate_api.service;
+
+import com.toolmate.toolmate_api.entity.RefreshToken;
+import com.toolmate.toolmate_api.entity.User;
+import com.toolmate.toolmate_api.exception.InvalidTokenException;
+import com.toolmate.toolmate_api.repository.RefreshTokenRepository;
+import com.toolmate.toolmate_api.security.JwtUtil;
+import com.toolmate.toolmate_api.security.RevokedTokenRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Refresh token rotation and revocation over an in-memory token table: the
+ * repository mocks answer from the rows the service saved.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RefreshTokenServiceTest {
+
+    private static final Long USER_ID = 1L;
+    private static final Long OTHER_USER_ID = 2L;
+    private static final Duration ACCESS_TTL = Duration.ofMinutes(15);
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+    @Mock
+    private JwtUtil jwtUtil;
+    @Mock
+    private RevokedTokenRegistry revokedTokenRegistry;
+
+    @InjectMocks
+    private RefreshTokenService refreshTokenService;
+
+    private final List<RefreshToken> rows = new ArrayList<>();
+    private User user;
+
+    @BeforeEach
+    void fakeTokenTable() {
+        ReflectionTestUtils.setField(refreshTokenService, "refreshExpiration", Duration.ofDays(30));
+        user = user(USER_ID);
+
+        when(jwtUtil.generateToken(anyLong(), anyString(), anyString(), anyString()))
+                .thenAnswer(invocation -> "access-" + invocation.getArgument(3));
+        when(jwtUtil.getAccessTokenTtl()).thenReturn(ACCESS_TTL);
+        when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(invocation -> {
+            RefreshToken row = invocation.getArgument(0);
+            rows.add(row);
+            return row;
+        });
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenAnswer(invocation -> rows.stream()
+                .filter(row -> row.getTokenHash().equals(invocation.getArgument(0)))
+                .findFirst());
+        when(refreshTokenRepository.findLiveByFamilyId(anyString(), any())).thenAnswer(invocation -> rows.stream()
+                .filter(row -> row.getFamilyId().equals(invocation.getArgument(0)))
+                .filter(row -> isLive(row, invocation.getArgument(1)))
+                .toList());
+        when(refreshTokenRepository.findLiveByUserId(anyLong(), any())).thenAnswer(invocation -> rows.stream()
+                .filter(row -> row.getUser().getId().equals(invocation.getArgument(0)))
+                .filter(row -> isLive(row, invocation.getArgument(1)))
+                .toList());
+    }
+
+    // ========== ISSUE ==========
+
+    @Test
+    void issueStoresOnlyTheHashOfTheRefreshToken() {
+        RefreshTokenService.IssuedTokens tokens = refreshTokenService.issue(user);
+
+        RefreshToken row = rows.get(0);
+        assertThat(row.getTokenHash()).hasSize(64).isNotEqualTo(tokens.refreshToken());
+        assertThat(tokens.accessToken()).isEqualTo("access-" + row.getAccessJti());
+        assertThat(row.getRevoked()).isFalse();
+        assertThat(row.getAccessRevoked()).isFalse();
+        assertThat(row.getExpiresAt()).isAfter(row.getAccessExpiresAt());
+    }
+
+    // ========== ROTATE ==========
+
+    @Test
+    void rotateRevokesPresentedTokenAndContinuesTheFamily() {
+        RefreshTokenService.IssuedTokens first = refreshTokenService.issue(user);
+
+        RefreshTokenService.IssuedTokens second = refreshTokenService.rotate(first.refreshToken());
+
+        assertThat(second.refreshToken()).isNotEqualTo(first.refreshToken());
+        assertThat(second.user()).isSameAs(user);
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).getRevoked()).isTrue();
+        assertThat(rows.get(1).getRevoked()).isFalse();
+        assertThat(rows.get(1).getFamilyId()).isEqualTo(rows.get(0).getFamilyId());
+        // The previous access token keeps working until it expires
+        assertThat(rows.get(0).getAccessRevoked()).isFalse();
+        verify(revokedTokenRegistry, never()).revoke(any(), any());
+    }
+
+    @Test
+    void rotatedTokenCanItselfBeRotated() {
+        RefreshTokenService.IssuedTokens first = refreshTokenService.issue(user);
+        RefreshTokenService.IssuedTokens second = refreshTokenService.rotate(first.refreshToken());
+
+        RefreshTokenService.IssuedTokens third = refreshTokenService.rotate(second.refreshToken());
+
+        assertThat(third.refreshToken()).isNotIn(first.refreshToken(), second.refreshToken());
+        assertThat(rows).extracting(RefreshToken::getRevoked).containsExactly(true, true, false);
+    }
+
+    @Test
+    void rotateRejectsUnknownToken() {
+        assertThatThrownBy(() -> refreshTokenService.rotate("not-a-token"))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessage("Invalid refresh token");
+    }
+
+    @Test
+    void rotateRejectsExpiredToken() {
+        RefreshTokenService.IssuedTokens tokens = refreshTokenService.issue(user);
+        rows.get(0).setExpiresAt(LocalDateTime.now().minusMinutes(1));
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(tokens.refreshToken()))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessage("Refresh token expired, please log in again");
+        assertThat(rows).hasSize(1);
+    }
+
+    @Test
+    void rotateForDeactivatedUserRevokesTheToken() {
+        RefreshTokenService.IssuedTokens tokens = refreshTokenService.issue(user);
+        user.setIsActive(false);
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(tokens.refreshToken()))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessage("Account is deactivated");
+        assertThat(rows.get(0).getRevoked()).isTrue();
+        assertThat(rows.get(0).getAccessRevoked()).isTrue();
+        verify(revokedTokenRegistry).revoke(rows.get(0).getAccessJti(), rows.get(0).getAccessExpiresAt());
+    }
+
+    // ========== REUSE ==========
+
+    @Test
+    void reusedTokenRevokesTheWholeFamilyAndItsAccessTokens() {
+        RefreshTokenService.IssuedTokens first = refreshTokenService.issue(user);
+        RefreshTokenService.IssuedTokens second = refreshTokenService.rotate(first.refreshToken());
+        refreshTokenService.rotate(second.refreshToken());
+        refreshTokenService.issue(user);
+        RefreshToken otherSession = rows.get(3);
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(first.refreshToken()))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessage("Refresh token was already used, please log in again");
+
+        for (RefreshToken row : rows.subList(0, 3)) {
+            assertThat(row.getRevoked()).isTrue();
+            assertThat(row.getAccessRevoked()).isTrue();
+            verify(revokedTokenRegistry).revoke(row.getAccessJti(), row.getAccessExpiresAt());
+        }
+        assertThat(otherSession.getRevoked()).isFalse();
+        verify(revokedTokenRegistry, never()).revoke(eq(otherSession.getAccessJti()), any());
+    }
+
+    @Test
+    void reuseSkipsAccessTokensThatAlreadyExpired() {
+        RefreshTokenService.IssuedTokens first = refreshTokenService.issue(user);
+        refreshTokenService.rotate(first.refreshToken());
+        rows.get(0).setAccessExpiresAt(LocalDateTime.now().minusMinutes(1));
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(first.refreshToken()))
+                .isInstanceOf(InvalidTokenException.class);
+
+        verify(revokedTokenRegistry, never()).revoke(eq(rows.get(0).getAccessJti()), any());
+        verify(revokedTokenRegistry).revoke(rows.get(1).getAccessJti(), rows.get(1).getAccessExpiresAt());
+    }
+
+    // ========== LOGOUT ==========
+
+    @Test
+    void revokeSessionEndsOnlyThatFamily() {
+        RefreshTokenService.IssuedTokens phone = refreshTokenService.issue(user);
+        RefreshTokenService.IssuedTokens rotated = refreshTokenService.rotate(phone.refreshToken());
+        refreshTokenService.issue(user);
+
+        refreshTokenService.revokeSession(rotated.refreshToken());
+
+        assertThat(rows).extracting(RefreshToken::getRevoked).containsExactly(true, true, false);
+        verify(revokedTokenRegistry).revoke(rows.get(0).getAccessJti(), rows.get(0).getAccessExpiresAt());
+        verify(revokedTokenRegistry).revoke(rows.get(1).getAccessJti(), rows.get(1).getAccessExpiresAt());
+        verify(revokedTokenRegistry, never()).revoke(eq(rows.get(2).getAccessJti()), any());
+    }
+
+    @Test
+    void revokeSessionIgnoresUnknownToken() {
+        refreshTokenService.issue(user);
+
+        refreshTokenService.revokeSession("not-a-token");
+
+        assertThat(rows.get(0).getRevoked()).isFalse();
+        verify(revokedTokenRegistry, never()).revoke(any(), any());
+    }
+
+    @Test
+    void revokeSessionTwiceRegistersTheAccessTokenOnce() {
+        RefreshTokenService.IssuedTokens tokens = refreshTokenService.issue(user);
+
+        refreshTokenService.revokeSession(tokens.refreshToken());
+        refreshTokenService.revokeSession(tokens.refreshToken());
+
+        verify(revokedTokenRegistry, times(1)).revoke(any(), any());
+    }
+
+    // ========== REVOKE ALL ==========
+
+    @Test
+    void revokeAllForUserEndsEverySessionOfThatUser() {
+        RefreshTokenService.IssuedTokens phone = refreshTokenService.issue(user);
+        refreshTokenService.rotate(phone.refreshToken());
+        refreshTokenService.issue(user);
+        refreshTokenService.issue(user(OTHER_USER_ID));
+
+        refreshTokenService.revokeAllForUser(USER_ID);
+
+        assertThat(rows).extracting(RefreshToken::getRevoked).containsExactly(true, true, true, false);
+        for (RefreshToken row : rows.subList(0, 3)) {
+            verify(revokedTokenRegistry).revoke(row.getAccessJti(), row.getAccessExpiresAt());
+        }
+        verify(revokedTokenRegistry, never()).revoke(eq(rows.get(3).getAccessJti()), any());
+    }
+
+    // ========== FIXTURES ==========
+
+    // Mirrors RefreshTokenRepository.LIVE_CONDITION
+    private static boolean isLive(RefreshToken row, LocalDateTime now) {
+        return !row.getRevoked() || (!row.getAccessRevoked() && row.getAccessExpiresAt().isAfter(now));
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail("user" + id + "@example.com");
+        user.setIsActive(true);
+        return user;
+    }
+}
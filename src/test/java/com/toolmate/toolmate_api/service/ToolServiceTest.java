@@ -0,0 +1,188 @@
+package com.toolmate.toolmate_api.service;
+
+import com.toolmate.toolmate_api.dto.response.ToolPageResponse;
+import com.toolmate.toolmate_api.dto.response.UserDTO;
+import com.toolmate.toolmate_api.repository.ToolRepository;
+import com.toolmate.toolmate_api.repository.UserRepository;
+import com.toolmate.toolmate_api.search.ToolAttributeIndex;
+import com.toolmate.toolmate_api.search.ToolAttributes;
+import com.toolmate.toolmate_api.search.ToolAutocompleteIndex;
+import com.toolmate.toolmate_api.search.ToolAvailabilityCalendar;
+import com.toolmate.toolmate_api.search.ToolFilter;
+import com.toolmate.toolmate_api.search.ToolGeoIndex;
+import com.toolmate.toolmate_api.search.ToolIndexer;
+import com.toolmate.toolmate_api.search.ToolLocation;
+import com.toolmate.toolmate_api.search.ToolTextIndex;
+import com.toolmate.toolmate_api.search.ToolTrigramIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Keyset paging of the nearby listing over the in-memory indexes: tools at the
+ * same spot tie on distance and are ordered by id, so walking the cursor must
+ * return every tool exactly once whatever the page size.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ToolServiceTest {
+
+    private static final Long USER_ID = 1L;
+    private static final Long NEAR_OWNER_ID = 2L;
+    private static final Long FAR_OWNER_ID = 3L;
+    private static final double USER_LATITUDE = 6.9000;
+    private static final double USER_LONGITUDE = 79.8500;
+    private static final String DRILLS = "Drills";
+    private static final ToolFilter NO_FILTER = new ToolFilter(null, null, null, null, null);
+    private static final ToolFilter DRILLS_ONLY = new ToolFilter(DRILLS, null, null, null, null);
+
+    @Mock
+    private ToolRepository toolRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private UserProfileCache userProfileCache;
+    @Mock
+    private ToolIndexer toolIndexer;
+    @Mock
+    private ToolTextIndex toolTextIndex;
+    @Mock
+    private ToolAutocompleteIndex toolAutocompleteIndex;
+    @Mock
+    private ToolTrigramIndex toolTrigramIndex;
+    @Mock
+    private ToolAvailabilityCalendar toolAvailabilityCalendar;
+
+    private ToolService toolService;
+
+    @BeforeEach
+    void buildIndexes() {
+        // Tools 1-7 share one spot, 8-10 share a farther one; 11 is the caller's own.
+        // Listed backwards so the order cannot come from insertion order
+        List<ToolAttributes> tools = new ArrayList<>();
+        for (long id = 11; id >= 1; id--) {
+            Long ownerId = id == 11 ? USER_ID : id <= 7 ? NEAR_OWNER_ID : FAR_OWNER_ID;
+            double latitude = id <= 7 || id == 11 ? 6.9100 : 6.9500;
+            double longitude = id <= 7 || id == 11 ? 79.8600 : 79.9000;
+            String category = id % 3 == 0 ? "Ladders" : DRILLS;
+            tools.add(new ToolAttributes(id, ownerId, latitude, longitude, category, "Good", "DAY", 500.0));
+        }
+        when(toolRepository.findAvailableToolLocations()).thenReturn(tools.stream()
+                .map(tool -> new ToolLocation(tool.toolId(), tool.ownerId(), tool.latitude(), tool.longitude()))
+                .toList());
+        when(toolRepository.findAvailableToolAttributes()).thenReturn(tools);
+        Map<Long, ToolRepository.ToolRow> rows = tools.stream()
+                .map(tool -> availableRow(tool.toolId()))
+                .collect(Collectors.toMap(ToolRepository.ToolRow::getId, Function.identity()));
+        when(toolRepository.findToolRowsByIdIn(anyCollection()))
+                .thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).stream()
+                        .map(rows::get)
+                        .toList());
+        when(userProfileCache.get(USER_ID)).thenReturn(Optional.of(caller()));
+
+        ToolGeoIndex toolGeoIndex = new ToolGeoIndex(toolRepository);
+        ToolAttributeIndex toolAttributeIndex = new ToolAttributeIndex(toolRepository);
+        toolGeoIndex.rebuild();
+        toolAttributeIndex.rebuild();
+
+        toolService = new ToolService(toolRepository, userRepository, userProfileCache, toolIndexer,
+                toolGeoIndex, toolAttributeIndex, toolTextIndex, toolAutocompleteIndex, toolTrigramIndex,
+                toolAvailabilityCalendar);
+        ReflectionTestUtils.setField(toolService, "useGeoIndex", true);
+    }
+
+    // ========== GEO INDEX ==========
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 5, 7, 10, 11})
+    void geoIndexPagesCoverEveryToolOnce(int pageSize) {
+        List<Long> walked = walk(NO_FILTER, pageSize);
+
+        assertThat(walked).containsExactlyElementsOf(LongStream.rangeClosed(1, 10).boxed().toList());
+    }
+
+    // ========== ATTRIBUTE INDEX ==========
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 4, 7, 8})
+    void attributeIndexPagesCoverEveryMatchingToolOnce(int pageSize) {
+        List<Long> walked = walk(DRILLS_ONLY, pageSize);
+
+        assertThat(walked).containsExactly(1L, 2L, 4L, 5L, 7L, 8L, 10L);
+    }
+
+    // ========== CURSOR ==========
+
+    @Test
+    void lastPageHasNoCursor() {
+        ToolPageResponse first = page(NO_FILTER, 5, null);
+        ToolPageResponse last = page(NO_FILTER, 5, first.getNextCursor());
+
+        assertThat(first.getNextCursor()).isNotNull();
+        assertThat(last.getTools()).hasSize(5);
+        assertThat(last.getNextCursor()).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"garbage", "1.5", ":7", "1.5:", "1.5:x", "x:7", "NaN:7", "Infinity:7", "-1.0:7"})
+    void malformedCursorIsABadRequest(String cursor) {
+        assertThatThrownBy(() -> page(NO_FILTER, 5, cursor))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    // ========== FIXTURES ==========
+
+    private List<Long> walk(ToolFilter filter, int pageSize) {
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            ToolPageResponse page = page(filter, pageSize, cursor);
+            assertThat(page.getTools()).hasSizeLessThanOrEqualTo(pageSize);
+            page.getTools().forEach(tool -> walked.add(tool.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return walked;
+    }
+
+    private ToolPageResponse page(ToolFilter filter, int pageSize, String cursor) {
+        return toolService.getAvailableTools(USER_ID, null, filter, null, null, pageSize, cursor);
+    }
+
+    private static UserDTO caller() {
+        UserDTO user = new UserDTO();
+        user.setId(USER_ID);
+        user.setLatitude(USER_LATITUDE);
+        user.setLongitude(USER_LONGITUDE);
+        return user;
+    }
+
+    private static ToolRepository.ToolRow availableRow(Long toolId) {
+        ToolRepository.ToolRow row = mock(ToolRepository.ToolRow.class);
+        when(row.getId()).thenReturn(toolId);
+        when(row.getIsAvailable()).thenReturn(true);
+        return row;
+    }
+}